@@ -0,0 +1,112 @@
+package cantonselector;
+
+import javafx.scene.Group;
+import javafx.scene.Scene;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+import static cantonselector.SkiRegion.Canton;
+
+/**
+ * Constructing the controls and the hot paths of interacting with them, all on the FX Application Thread.
+ * The interactions run {@link #OPERATIONS} times per hand over to the FX thread, the results are per operation.
+ * Needs a display, or Monocle for a headless run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ControlBenchmark {
+    static final int OPERATIONS = 200;
+
+    private RegionSelectorControl selector;
+    private final EnumSet<Canton> bern = EnumSet.of(Canton.BE);
+    private final EnumSet<Canton> graubuenden = EnumSet.of(Canton.GR);
+
+    @Setup
+    public void startToolkit() throws Exception {
+        FxThread.start();
+        selector = FxThread.call(() -> {
+            RegionSelectorControl control = new RegionSelectorControl();
+            new Scene(new Group(control));
+            control.resize(1100, 675);
+            control.layout();
+            return control;
+        });
+    }
+
+    @Benchmark
+    public RegionSelectorControl createRegionSelector() throws Exception {
+        return FxThread.call(RegionSelectorControl::new);
+    }
+
+    @Benchmark
+    public RegionSelectorControl createRegionSelectorAsync() throws Exception {
+        return FxThread.call(() -> new RegionSelectorControl(true));
+    }
+
+    @Benchmark
+    public SnowmanControl createSnowman() throws Exception {
+        return FxThread.call(SnowmanControl::new);
+    }
+
+    @Benchmark
+    public RegionSnowmanDashboard createDashboard() throws Exception {
+        return FxThread.call(RegionSnowmanDashboard::new);
+    }
+
+    /**
+     * Moves the hover between two cantons, through the listeners updating the outline and the display.
+     */
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void hover() throws Exception {
+        FxThread.run(() -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                selector.setHoverRegion(i % 2 == 0 ? Canton.BE.getName() : Canton.GR.getName());
+            }
+        });
+    }
+
+    /**
+     * Moves the selection between two cantons and lays the control out, which recolors them.
+     */
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void select() throws Exception {
+        FxThread.run(() -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                selector.getSelection().set(i % 2 == 0 ? bern : graubuenden);
+                selector.layout();
+            }
+        });
+    }
+
+    /**
+     * Resizes between two sizes of a different level of detail.
+     */
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void resize() throws Exception {
+        FxThread.run(() -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                selector.resize(i % 2 == 0 ? 1100 : 300, i % 2 == 0 ? 675 : 184);
+                selector.layout();
+            }
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package cantonselector;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Runs benchmark code on the FX Application Thread, starting the toolkit on first use.
+ * The hand over costs some microseconds, so the interaction benchmarks run many operations per hand over.
+ */
+final class FxThread {
+    private static boolean started;
+
+    private FxThread() {
+    }
+
+    static synchronized void start() throws InterruptedException {
+        if (started) {
+            return;
+        }
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            Platform.startup(latch::countDown);
+        } catch (IllegalStateException e) {
+            // started by an earlier trial in the same JVM
+            latch.countDown();
+        }
+        latch.await();
+        Platform.setImplicitExit(false);
+        started = true;
+    }
+
+    static <T> T call(Callable<T> callable) throws InterruptedException, ExecutionException {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(callable.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        return result.get();
+    }
+
+    static void run(Runnable runnable) throws InterruptedException, ExecutionException {
+        call(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+}
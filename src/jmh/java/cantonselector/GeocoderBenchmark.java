@@ -0,0 +1,74 @@
+package cantonselector;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The throughput of the geocoder on random LV95 coordinates over Switzerland, one point at a time
+ * on one core and in bulk on all cores, per point looked up.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeocoderBenchmark {
+    static final int POINTS = 1_000_000;
+
+    private final double[] east = new double[POINTS];
+    private final double[] north = new double[POINTS];
+    private CantonGeometry geometry;
+    private CantonGeocoder geocoder;
+
+    @Setup
+    public void createGeocoder() throws IOException {
+        geometry = CantonGeometry.shared();
+        geocoder = new CantonGeocoder(geometry);
+        Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            east[i] = 2_485_000 + random.nextDouble() * 349_000;
+            north[i] = 1_075_000 + random.nextDouble() * 221_000;
+        }
+    }
+
+    /**
+     * Builds the geocoder, what the first lookup of an application pays.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CantonGeocoder create() {
+        return new CantonGeocoder(geometry);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public int lookupOneByOne() {
+        int found = 0;
+        for (int i = 0; i < POINTS; i++) {
+            if (geocoder.lookupOrdinal(east[i], north[i]) >= 0) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public int[] lookupAll() {
+        return geocoder.lookupAll(east, north);
+    }
+}
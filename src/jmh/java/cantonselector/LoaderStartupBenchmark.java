@@ -0,0 +1,83 @@
+package cantonselector;
+
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.SVGPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the startup cost of the streaming canton loader with the former DOM + XPath loader:
+ * the time from reading the svg map to a scene showing all canton paths, once per fresh JVM,
+ * so the class loading and the cold code of the loader are part of it. The allocation profiler of the
+ * {@code jmh} task reports the bytes allocated on the way. Needs a display, or Monocle for a headless run.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class LoaderStartupBenchmark {
+
+    @Setup
+    public void startToolkit() throws Exception {
+        FxThread.start();
+    }
+
+    @Benchmark
+    public Scene dom() throws Exception {
+        return show(loadWithDom());
+    }
+
+    @Benchmark
+    public Scene stax() throws Exception {
+        return show(new ArrayList<>(CantonSvgLoader.load().values()));
+    }
+
+    private static Scene show(List<String> pathData) throws Exception {
+        return FxThread.call(() -> {
+            Pane pane = new Pane();
+            for (String d : pathData) {
+                SVGPath svg = new SVGPath();
+                svg.setContent(d);
+                pane.getChildren().add(svg);
+            }
+            return new Scene(pane, 1100, 675);
+        });
+    }
+
+    // the loader as it was before CantonSvgLoader, kept here as the baseline
+    private static List<String> loadWithDom() throws Exception {
+        try (InputStream in = LoaderStartupBenchmark.class.getResourceAsStream(CantonSvgLoader.SVG_RESOURCE)) {
+            Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(in);
+            NodeList svgPaths = (NodeList) XPathFactory.newInstance().newXPath().compile("//path")
+                    .evaluate(document, XPathConstants.NODESET);
+
+            List<String> result = new ArrayList<>();
+            for (int i = 0; i < 26; i++) {
+                result.add(((Element) svgPaths.item(i)).getAttribute("d"));
+            }
+            return result;
+        }
+    }
+}
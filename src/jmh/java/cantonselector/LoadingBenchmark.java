@@ -0,0 +1,97 @@
+package cantonselector;
+
+import javafx.scene.shape.SVGPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.concurrent.TimeUnit;
+
+import static cantonselector.SkiRegion.Canton;
+
+/**
+ * The steps of loading the map that do not need the FX Application Thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadingBenchmark {
+    private CantonGeometry geometry;
+    private final SVGPath[] cantonSvgs = new SVGPath[Canton.values().length];
+
+    @Setup
+    public void loadGeometry() throws IOException {
+        geometry = CantonGeometry.load();
+    }
+
+    /**
+     * Parses the svg map, as the geometry compiler does.
+     */
+    @Benchmark
+    public EnumMap<Canton, String> parseSvg() throws IOException {
+        return CantonSvgLoader.load();
+    }
+
+    /**
+     * Reads the compiled geometry, what the first control pays for the map.
+     */
+    @Benchmark
+    public CantonGeometry readGeometry() throws IOException {
+        return CantonGeometry.load();
+    }
+
+    /**
+     * Turns the outlines into svg path content, the part of loadCantonSvgs every control pays for.
+     */
+    @Benchmark
+    public int svgContent() {
+        int length = 0;
+        for (Canton canton : Canton.values()) {
+            length += geometry.outline(canton).toSvgContent().length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public RegionCatalog catalogOfCantons() {
+        return new RegionCatalog(RegionPartition.CANTONS, cantonSvgs, geometry);
+    }
+
+    /**
+     * Merges the outlines of the ski regions, done in the background when the partition is switched.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 10)
+    public RegionCatalog catalogOfSkiRegions(UnmergedGeometry unmerged) {
+        return new RegionCatalog(RegionPartition.SKI_REGIONS, cantonSvgs, unmerged.geometry);
+    }
+
+    /**
+     * A geometry loaded fresh for every invocation, only taken by the benchmarks that need one.
+     */
+    @State(Scope.Benchmark)
+    public static class UnmergedGeometry {
+        private CantonGeometry geometry;
+
+        // the merged outlines are cached by the geometry, a fresh one has none
+        @Setup(Level.Invocation)
+        public void load() throws IOException {
+            geometry = CantonGeometry.load();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package cantonselector;
+
+import javafx.event.Event;
+import javafx.geometry.Point2D;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.StackPane;
+import javafx.scene.shape.SVGPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static cantonselector.SkiRegion.Canton;
+
+/**
+ * Loads the municipalities of all cantons, about a hundred times as many shapes as cantons, and measures
+ * the hover over the municipalities of the largest canton: through the control, which looks them up in
+ * a spatial index and draws them into one canvas, against testing one node per municipality.
+ * The municipalities are the made-up ones of {@link MunicipalityFixtureGenerator}.
+ * Needs a display, or Monocle for a headless run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MunicipalityBenchmark {
+    static final int POINTS = 2_000;
+    private static final Canton CANTON = Canton.BE;
+
+    private final double[] xs = new double[POINTS];
+    private final double[] ys = new double[POINTS];
+    private RegionSelectorControl control;
+    private Pane drawingPane;
+    private SVGPath[] svgs;
+
+    @Setup
+    public void showMunicipalities() throws Exception {
+        CantonGeometry geometry = CantonGeometry.shared();
+        PathGeometry outline = geometry.outline(CANTON);
+        Random random = new Random(42);
+        for (int i = 0; i < POINTS; ) {
+            xs[i] = outline.getMinX() + random.nextDouble() * (outline.getMaxX() - outline.getMinX());
+            ys[i] = outline.getMinY() + random.nextDouble() * (outline.getMaxY() - outline.getMinY());
+            if (geometry.cantonAt(xs[i], ys[i]) == CANTON) {
+                i++;
+            }
+        }
+        List<Municipality> municipalities = Municipality.of(CANTON);
+        if (municipalities.isEmpty()) {
+            throw new IllegalStateException("no municipalities of " + CANTON.getShortName() + " on the classpath");
+        }
+
+        FxThread.start();
+        FxThread.run(() -> {
+            control = new RegionSelectorControl();
+            control.setMunicipalitiesVisible(true);
+            new Scene(new StackPane(control), 1100, 675);
+            control.applyCss();
+            control.resize(1100, 675);
+            control.layout();
+            for (Node child : control.getChildrenUnmodifiable()) {
+                if (child instanceof Pane) {
+                    drawingPane = (Pane) child;
+                }
+            }
+            control.setSelectedRegion(CANTON.getName());
+            svgs = new SVGPath[municipalities.size()];
+            for (int i = 0; i < svgs.length; i++) {
+                svgs[i] = new SVGPath();
+                svgs[i].setContent(municipalities.get(i).getOutline().toSvgContent());
+            }
+        });
+        // the municipalities are loaded in the background once the canton is selected
+        while (!FxThread.call(() -> {
+            moveTo(xs[0], ys[0]);
+            return control.getHoverMunicipality() != null;
+        })) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Reads the municipalities of every canton, what showing them all would cost.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int loadAllCantons() {
+        int shapes = 0;
+        for (Canton canton : Canton.values()) {
+            shapes += Municipality.of(canton).size();
+        }
+        return shapes;
+    }
+
+    /**
+     * Moves the mouse over the canton, handled by the control like real mouse events.
+     */
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public int hoverControl() throws Exception {
+        return FxThread.call(() -> {
+            int hits = 0;
+            for (int i = 0; i < POINTS; i++) {
+                moveTo(xs[i], ys[i]);
+                if (control.getHoverMunicipality() != null) {
+                    hits++;
+                }
+            }
+            return hits;
+        });
+    }
+
+    /**
+     * Tests one node per municipality, what picking would cost with a node for each of them.
+     */
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public int hoverNodes() throws Exception {
+        return FxThread.call(() -> {
+            int hits = 0;
+            for (int i = 0; i < POINTS; i++) {
+                for (SVGPath svg : svgs) {
+                    if (svg.contains(xs[i], ys[i])) {
+                        hits++;
+                        break;
+                    }
+                }
+            }
+            return hits;
+        });
+    }
+
+    // the mouse moved to the map coordinates
+    private void moveTo(double x, double y) {
+        Point2D scene = drawingPane.localToScene(x, y);
+        Event.fireEvent(drawingPane, new MouseEvent(MouseEvent.MOUSE_MOVED, scene.getX(), scene.getY(),
+                scene.getX(), scene.getY(), MouseButton.NONE, 0, false, false, false, false,
+                false, false, false, false, false, false, null));
+    }
+}
@@ -0,0 +1,111 @@
+package cantonselector;
+
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static cantonselector.SkiRegion.Canton;
+
+/**
+ * Build step that writes made-up municipalities in the format read by {@link MunicipalityLayer},
+ * one svg per canton, for the benchmarks only. Run by the {@code generateMunicipalities} gradle task with
+ * the svg map and the output directory as arguments.
+ * <p>
+ * The map is covered by a grid of jittered quadrilaterals of about the size of a swiss municipality,
+ * each cut by the canton outlines, so the municipalities of a canton tile it without gaps and the map gets
+ * about as many of them as Switzerland has. Their ids and names are invented.
+ */
+final class MunicipalityFixtureGenerator {
+    // side of a grid cell in map units, gives about 2300 municipalities
+    private static final double CELL_SIZE = 15;
+    // how far a grid corner is moved at random, relative to the cell size
+    private static final double JITTER = 0.35;
+    // pieces of a cell cut off by a canton border smaller than this are dropped (in square map units)
+    private static final double MIN_AREA = 0.5;
+    // the same fixture on every build
+    private static final long SEED = 2131;
+
+    private MunicipalityFixtureGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("usage: MunicipalityFixtureGenerator <svg> <output directory>");
+        }
+        CantonGeometry geometry;
+        try (InputStream in = Files.newInputStream(Path.of(args[0]))) {
+            geometry = CantonGeometry.fromPathData(CantonSvgLoader.load(in));
+        }
+        Path output = Path.of(args[1]);
+        Files.createDirectories(output);
+
+        int columns = (int) Math.ceil(RegionSelectorControl.ARTBOARD_WIDTH / CELL_SIZE) + 1;
+        int rows = (int) Math.ceil(RegionSelectorControl.ARTBOARD_HEIGHT / CELL_SIZE) + 1;
+        float[] cornerX = new float[(columns + 1) * (rows + 1)];
+        float[] cornerY = new float[cornerX.length];
+        Random random = new Random(SEED);
+        for (int row = 0; row <= rows; row++) {
+            for (int column = 0; column <= columns; column++) {
+                int corner = row * (columns + 1) + column;
+                cornerX[corner] = (float) ((column + (random.nextDouble() * 2 - 1) * JITTER) * CELL_SIZE);
+                cornerY[corner] = (float) ((row + (random.nextDouble() * 2 - 1) * JITTER) * CELL_SIZE);
+            }
+        }
+
+        int total = 0;
+        for (Canton canton : Canton.values()) {
+            PathGeometry outline = geometry.outline(canton);
+            Area cantonArea = new Area(outline.toShape());
+            int column0 = Math.max(0, (int) Math.floor(outline.getMinX() / CELL_SIZE) - 1);
+            int column1 = Math.min(columns - 1, (int) Math.ceil(outline.getMaxX() / CELL_SIZE));
+            int row0 = Math.max(0, (int) Math.floor(outline.getMinY() / CELL_SIZE) - 1);
+            int row1 = Math.min(rows - 1, (int) Math.ceil(outline.getMaxY() / CELL_SIZE));
+
+            Path file = output.resolve(canton.getShortName() + ".svg");
+            try (Writer out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+                out.write("<svg xmlns=\"http://www.w3.org/2000/svg\">\n");
+                int count = 0;
+                for (int row = row0; row <= row1; row++) {
+                    for (int column = column0; column <= column1; column++) {
+                        Path2D.Float quad = new Path2D.Float();
+                        int corner = row * (columns + 1) + column;
+                        quad.moveTo(cornerX[corner], cornerY[corner]);
+                        quad.lineTo(cornerX[corner + 1], cornerY[corner + 1]);
+                        quad.lineTo(cornerX[corner + columns + 2], cornerY[corner + columns + 2]);
+                        quad.lineTo(cornerX[corner + columns + 1], cornerY[corner + columns + 1]);
+                        quad.closePath();
+                        Rectangle2D bounds = quad.getBounds2D();
+                        if (!bounds.intersects(outline.getMinX(), outline.getMinY(),
+                                outline.getMaxX() - outline.getMinX(), outline.getMaxY() - outline.getMinY())) {
+                            continue;
+                        }
+                        Area cell = new Area(quad);
+                        // only cells on the border of the canton need to be cut
+                        if (!cantonArea.contains(bounds)) {
+                            cell.intersect(cantonArea);
+                        }
+                        if (cell.isEmpty() || Math.abs(CantonGeometry.area(cell)) < MIN_AREA) {
+                            continue;
+                        }
+                        count++;
+                        // made-up ids, unique over all cantons
+                        int id = (canton.ordinal() + 1) * 1000 + count;
+                        out.write(String.format("<path id=\"%d\" data-name=\"%s %d\" d=\"%s\"/>%n",
+                                id, canton.getShortName(), count, PathGeometry.fromShape(cell).toSvgContent()));
+                    }
+                }
+                out.write("</svg>\n");
+                total += count;
+            }
+        }
+        System.out.println(total + " municipalities written to " + output);
+    }
+}
@@ -0,0 +1,87 @@
+package cantonselector;
+
+import javafx.scene.shape.SVGPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static cantonselector.SkiRegion.Canton;
+
+/**
+ * Compares the latency of finding the canton under the mouse with the shared spatial index
+ * against testing every canton node the way per-node picking does, per pick over random points of the map.
+ * The nodes are tested on the FX Application Thread, so it needs a display, or Monocle for a headless run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PickBenchmark {
+    static final int POINTS = 10_000;
+
+    private final double[] xs = new double[POINTS];
+    private final double[] ys = new double[POINTS];
+    private CantonGeometry geometry;
+    private SVGPath[] svgs;
+
+    @Setup
+    public void createCantons() throws Exception {
+        geometry = CantonGeometry.shared();
+        Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            xs[i] = random.nextDouble() * RegionSelectorControl.ARTBOARD_WIDTH;
+            ys[i] = random.nextDouble() * RegionSelectorControl.ARTBOARD_HEIGHT;
+        }
+        FxThread.start();
+        svgs = FxThread.call(() -> {
+            SVGPath[] result = new SVGPath[Canton.values().length];
+            for (Canton canton : Canton.values()) {
+                result[canton.ordinal()] = new SVGPath();
+                result[canton.ordinal()].setContent(geometry.outline(canton).toSvgContent());
+            }
+            return result;
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public int pickIndex() {
+        int hits = 0;
+        for (int i = 0; i < POINTS; i++) {
+            if (geometry.cantonAt(xs[i], ys[i]) != null) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public int pickNodes() throws Exception {
+        return FxThread.call(() -> {
+            int hits = 0;
+            for (int i = 0; i < POINTS; i++) {
+                for (SVGPath svg : svgs) {
+                    if (svg.contains(xs[i], ys[i])) {
+                        hits++;
+                        break;
+                    }
+                }
+            }
+            return hits;
+        });
+    }
+}
@@ -0,0 +1,294 @@
+package cantonselector;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Affine;
+
+import static cantonselector.SkiRegion.Canton;
+
+/**
+ * Draws all cantons into a single canvas instead of one node per canton.
+ * The canvas has the size the map takes on screen and only covers the part of the map in view,
+ * so neither small nor zoomed in maps cost more texture memory than the screen they take.
+ * Changing the fill of a canton only repaints the area of its bounding box, cantons out of view are skipped.
+ * With a {@link MapTileCache} the cantons in the base color are drawn as cached image tiles, only the cantons
+ * with a fill of their own and the parts of the map whose tiles are still on their way are drawn as paths.
+ */
+final class CantonCanvasRenderer {
+    private static final Canton[] CANTONS = Canton.values();
+
+    private final CantonGeometry geometry;
+    private final double width;
+    private final double height;
+    private final Canvas canvas = new Canvas();
+    private final Affine identity = new Affine();
+    // kept, so a tile requested on several repaints is only waited for once
+    private final MapTileCache.TileListener tileListener = this::tileReady;
+
+    // null means the canton is drawn in the base color
+    private final Color[] fills = new Color[CANTONS.length];
+    private Color baseColor;
+    private MapTileCache tileCache;
+    private double scale;
+    private int levelOfDetail;
+    // the part of the map the canvas covers, in map units
+    private double viewMinX;
+    private double viewMinY;
+    private double viewMaxX;
+    private double viewMaxY;
+
+    /**
+     * @param width  width of the area to draw, in map units
+     * @param height height of the area to draw, in map units
+     */
+    CantonCanvasRenderer(CantonGeometry geometry, double width, double height) {
+        this.geometry = geometry;
+        this.width = width;
+        this.height = height;
+        canvas.setMouseTransparent(true);
+    }
+
+    Canvas getCanvas() {
+        return canvas;
+    }
+
+    /**
+     * @param scale the factor the map is drawn with
+     * @param minX  the part of the map in view, in map units
+     */
+    void setView(double scale, double minX, double minY, double maxX, double maxY) {
+        minX = Math.max(0, minX);
+        minY = Math.max(0, minY);
+        maxX = Math.min(width, maxX);
+        maxY = Math.min(height, maxY);
+        if (scale == this.scale && minX == viewMinX && minY == viewMinY && maxX == viewMaxX && maxY == viewMaxY) {
+            return;
+        }
+        this.scale = scale;
+        viewMinX = minX;
+        viewMinY = minY;
+        viewMaxX = maxX;
+        viewMaxY = maxY;
+        levelOfDetail = CantonGeometry.levelOfDetail(scale);
+        canvas.setWidth(Math.max(0, Math.ceil((maxX - minX) * scale)));
+        canvas.setHeight(Math.max(0, Math.ceil((maxY - minY) * scale)));
+        updateVisibleTiles();
+        repaintAll();
+    }
+
+    /**
+     * @return the left edge of the part of the map in view, where the canvas starts
+     */
+    double getViewMinX() {
+        return viewMinX;
+    }
+
+    double getViewMinY() {
+        return viewMinY;
+    }
+
+    /**
+     * @param tileCache the tiles of the base map, null to draw all cantons as paths
+     */
+    void setTileCache(MapTileCache tileCache) {
+        if (tileCache != this.tileCache) {
+            if (this.tileCache != null) {
+                this.tileCache.setVisible(this, null, 0, 0, 0, 0, 0);
+            }
+            this.tileCache = tileCache;
+            updateVisibleTiles();
+            repaintAll();
+        }
+    }
+
+    void setBaseColor(Color baseColor) {
+        this.baseColor = baseColor;
+        updateVisibleTiles();
+        repaintAll();
+    }
+
+    /**
+     * @param fill the new fill, null for the base color
+     */
+    void setFill(Canton canton, Color fill) {
+        Color previous = fills[canton.ordinal()];
+        fills[canton.ordinal()] = fill;
+        if (previous == null ? fill != null : !previous.equals(fill)) {
+            PathGeometry outline = geometry.outline(canton);
+            repaint(outline.getMinX(), outline.getMinY(), outline.getMaxX(), outline.getMaxY());
+        }
+    }
+
+    /**
+     * Changes the base color and the fills of several cantons, repainting the area they cover once.
+     *
+     * @param changes the new fills by canton ordinal, null values for the base color
+     * @param cantons the ordinals of the cantons to change, as bit mask
+     */
+    void setFills(Color baseColor, Color[] changes, long cantons) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (long rest = cantons; rest != 0; rest &= rest - 1) {
+            int ordinal = Long.numberOfTrailingZeros(rest);
+            Color fill = changes[ordinal];
+            if (fills[ordinal] == null ? fill == null : fills[ordinal].equals(fill)) {
+                continue;
+            }
+            fills[ordinal] = fill;
+            PathGeometry outline = geometry.outline(CANTONS[ordinal]);
+            minX = Math.min(minX, outline.getMinX());
+            minY = Math.min(minY, outline.getMinY());
+            maxX = Math.max(maxX, outline.getMaxX());
+            maxY = Math.max(maxY, outline.getMaxY());
+        }
+        if (baseColor == null ? this.baseColor != null : !baseColor.equals(this.baseColor)) {
+            this.baseColor = baseColor;
+            updateVisibleTiles();
+            repaintAll();
+        } else if (minX <= maxX) {
+            repaint(minX, minY, maxX, maxY);
+        }
+    }
+
+    void repaintAll() {
+        repaint(viewMinX, viewMinY, viewMaxX, viewMaxY);
+    }
+
+    // repaints every canton overlapping the area, clipped to the area and the view (in map coordinates)
+    private void repaint(double minX, double minY, double maxX, double maxY) {
+        minX = Math.max(minX, viewMinX);
+        minY = Math.max(minY, viewMinY);
+        maxX = Math.min(maxX, viewMaxX);
+        maxY = Math.min(maxY, viewMaxY);
+        if (scale <= 0 || minX > maxX || minY > maxY) {
+            return;
+        }
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        // clip to whole pixels, so the antialiased edges of the neighbours are redrawn completely
+        double x = Math.floor((minX - viewMinX) * scale) - 1;
+        double y = Math.floor((minY - viewMinY) * scale) - 1;
+        double w = Math.ceil((maxX - viewMinX) * scale) + 1 - x;
+        double h = Math.ceil((maxY - viewMinY) * scale) + 1 - y;
+
+        gc.save();
+        gc.setTransform(identity);
+        gc.beginPath();
+        gc.rect(x, y, w, h);
+        gc.clip();
+        gc.clearRect(x, y, w, h);
+        gc.setTransform(scale, 0, 0, scale, -viewMinX * scale, -viewMinY * scale);
+        boolean tiled = tileCache != null && baseColor != null && showsBaseColor(minX, minY, maxX, maxY);
+        if (tiled) {
+            drawTiles(gc, minX, minY, maxX, maxY);
+        }
+        for (Canton canton : CANTONS) {
+            PathGeometry outline = geometry.outline(canton);
+            Color fill = fills[canton.ordinal()] != null ? fills[canton.ordinal()] : tiled ? null : baseColor;
+            if (fill != null && outline.getMaxX() >= minX && outline.getMinX() <= maxX
+                    && outline.getMaxY() >= minY && outline.getMinY() <= maxY) {
+                gc.setFill(fill);
+                trace(gc, geometry.outline(canton, levelOfDetail));
+                gc.fill();
+            }
+        }
+        gc.restore();
+    }
+
+    private boolean showsBaseColor(double minX, double minY, double maxX, double maxY) {
+        for (Canton canton : CANTONS) {
+            PathGeometry outline = geometry.outline(canton);
+            if (fills[canton.ordinal()] == null && outline.getMaxX() >= minX && outline.getMinX() <= maxX
+                    && outline.getMaxY() >= minY && outline.getMinY() <= maxY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // draws the cached tiles covering the area and the cantons in the base color as paths where tiles are missing,
+    // the missing tiles are requested
+    private void drawTiles(GraphicsContext gc, double minX, double minY, double maxX, double maxY) {
+        int level = MapTileCache.levelOf(scale);
+        double size = MapTileCache.tileSize(level);
+        double drawnSize = size * MapTileCache.TILE_PIXELS / MapTileCache.TILE_SIZE;
+        int missing = 0;
+        for (int row = (int) Math.floor(minY / size); row <= (int) Math.floor(maxY / size); row++) {
+            for (int column = (int) Math.floor(minX / size); column <= (int) Math.floor(maxX / size); column++) {
+                Image tile = tileCache.cached(baseColor, level, column, row);
+                if (tile == null) {
+                    tileCache.request(geometry, baseColor, level, column, row, tileListener);
+                    if (missing++ == 0) {
+                        gc.save();
+                        gc.beginPath();
+                    }
+                    // the missing tiles make up the clip of the paths
+                    gc.rect(column * size, row * size, size, size);
+                } else if (tile != MapTileCache.EMPTY) {
+                    gc.drawImage(tile, column * size, row * size, drawnSize, drawnSize);
+                }
+            }
+        }
+        if (missing == 0) {
+            return;
+        }
+        gc.clip();
+        gc.setFill(baseColor);
+        for (Canton canton : CANTONS) {
+            PathGeometry outline = geometry.outline(canton);
+            if (fills[canton.ordinal()] == null && outline.getMaxX() >= minX && outline.getMinX() <= maxX
+                    && outline.getMaxY() >= minY && outline.getMinY() <= maxY) {
+                trace(gc, geometry.outline(canton, levelOfDetail));
+                gc.fill();
+            }
+        }
+        gc.restore();
+    }
+
+    private void tileReady(int level, int column, int row) {
+        if (level == MapTileCache.levelOf(scale)) {
+            double size = MapTileCache.tileSize(level);
+            repaint(column * size, row * size, (column + 1) * size, (row + 1) * size);
+        }
+    }
+
+    // tells the cache which tiles are in view, so they are not dropped while they are
+    private void updateVisibleTiles() {
+        if (tileCache == null || scale <= 0) {
+            return;
+        }
+        int level = MapTileCache.levelOf(scale);
+        double size = MapTileCache.tileSize(level);
+        tileCache.setVisible(this, baseColor, level, (int) Math.floor(viewMinX / size), (int) Math.floor(viewMaxX / size),
+                (int) Math.floor(viewMinY / size), (int) Math.floor(viewMaxY / size));
+    }
+
+    /**
+     * Makes the outline the current path of the graphics context.
+     */
+    static void trace(GraphicsContext gc, PathGeometry outline) {
+        gc.beginPath();
+        int c = 0;
+        for (int i = 0; i < outline.getCommandCount(); i++) {
+            byte command = outline.getCommand(i);
+            switch (command) {
+                case PathGeometry.MOVE_TO:
+                    gc.moveTo(outline.getCoord(c), outline.getCoord(c + 1));
+                    break;
+                case PathGeometry.LINE_TO:
+                    gc.lineTo(outline.getCoord(c), outline.getCoord(c + 1));
+                    break;
+                case PathGeometry.CURVE_TO:
+                    gc.bezierCurveTo(outline.getCoord(c), outline.getCoord(c + 1), outline.getCoord(c + 2),
+                            outline.getCoord(c + 3), outline.getCoord(c + 4), outline.getCoord(c + 5));
+                    break;
+                default:
+                    gc.closePath();
+            }
+            c += PathGeometry.coordCount(command);
+        }
+    }
+}
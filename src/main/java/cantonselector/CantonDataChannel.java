@@ -0,0 +1,105 @@
+package cantonselector;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static cantonselector.SkiRegion.Canton;
+
+/**
+ * Hands values per canton from any number of background threads to the FX Application Thread.
+ * Every canton has a single slot holding its latest value, a write overwrites a value not yet taken.
+ * Writing never blocks and never touches the FX event queue more than once per drain:
+ * only the first write after a drain wakes the consumer up.
+ * <p>
+ * A channel feeds one consumer, see {@link RegionSelectorControl#dataChannelProperty()}.
+ */
+public final class CantonDataChannel {
+    private static final Canton[] CANTONS = Canton.values();
+
+    /**
+     * Receives the values taken out of the channel.
+     */
+    public interface Sink {
+        void accept(Canton canton, double value);
+    }
+
+    // the raw bits of the latest value of every canton
+    private final AtomicLongArray values = new AtomicLongArray(CANTONS.length);
+    // cantons written since the last drain, one bit per ordinal
+    private final AtomicLong pending = new AtomicLong();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder coalescedWrites = new LongAdder();
+    private final LongAdder drains = new LongAdder();
+
+    private volatile Runnable wakeUp;
+
+    /**
+     * Stores the value of the canton, callable from any thread.
+     */
+    public void publish(Canton canton, double value) {
+        long bit = 1L << canton.ordinal();
+        // the value goes first, so a consumer seeing the bit also sees the value
+        values.set(canton.ordinal(), Double.doubleToRawLongBits(value));
+        long before = pending.getAndAccumulate(bit, (mask, added) -> mask | added);
+        writes.increment();
+        if ((before & bit) != 0) {
+            coalescedWrites.increment();
+        }
+        if (before == 0) {
+            Runnable consumer = wakeUp;
+            if (consumer != null) {
+                consumer.run();
+            }
+        }
+    }
+
+    /**
+     * Hands the latest value of every canton written since the last drain to the sink.
+     *
+     * @return the number of values handed over
+     */
+    public int drain(Sink sink) {
+        long mask = pending.getAndSet(0);
+        if (mask == 0) {
+            return 0;
+        }
+        drains.increment();
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            int ordinal = Long.numberOfTrailingZeros(rest);
+            sink.accept(CANTONS[ordinal], Double.longBitsToDouble(values.get(ordinal)));
+        }
+        return Long.bitCount(mask);
+    }
+
+    /**
+     * @param wakeUp called by the writing thread whenever there are values again after a drain, null for none
+     */
+    void connect(Runnable wakeUp) {
+        this.wakeUp = wakeUp;
+        if (wakeUp != null && pending.get() != 0) {
+            wakeUp.run();
+        }
+    }
+
+    /**
+     * @return the number of values published so far
+     */
+    public long getWriteCount() {
+        return writes.sum();
+    }
+
+    /**
+     * @return the number of values overwritten before they were drained, so never shown
+     */
+    public long getCoalescedWriteCount() {
+        return coalescedWrites.sum();
+    }
+
+    /**
+     * @return the number of drains that took at least one value
+     */
+    public long getDrainCount() {
+        return drains.sum();
+    }
+}
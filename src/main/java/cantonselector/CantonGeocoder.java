@@ -0,0 +1,270 @@
+package cantonselector;
+
+import java.util.stream.IntStream;
+
+import static cantonselector.SkiRegion.Canton;
+
+/**
+ * Finds the canton of Swiss coordinates, in LV95 or WGS84, without any UI.
+ * The coordinates are mapped onto the canton map by a {@link Calibration}. The {@link PickBuffer} of the map
+ * answers most lookups with a single array read: a pixel no outline passes through holds its canton, only points
+ * in the pixels on a border, kept as a bit mask, are tested against the outlines, so the result is exact there too.
+ * <p>
+ * Instances are immutable and can be used from any thread, see {@link #lookupAll(double[], double[])}
+ * for many points at once.
+ */
+public final class CantonGeocoder {
+    private static final Canton[] CANTONS = Canton.values();
+    private static final int OUTSIDE = -1;
+    // points a thread of a bulk lookup takes at once
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * Maps LV95 coordinates onto the canton map by an affine transform.
+     */
+    public static final class Calibration {
+        // LV95 coordinates of the westernmost, easternmost, southernmost and northernmost point of Switzerland
+        private static final double WEST = 2_485_410;
+        private static final double EAST = 2_833_858;
+        private static final double SOUTH = 1_075_268;
+        private static final double NORTH = 1_295_934;
+
+        private final double xEast;
+        private final double xNorth;
+        private final double x0;
+        private final double yEast;
+        private final double yNorth;
+        private final double y0;
+
+        /**
+         * mapX = xEast * east + xNorth * north + x0, mapY = yEast * east + yNorth * north + y0
+         */
+        public Calibration(double xEast, double xNorth, double x0, double yEast, double yNorth, double y0) {
+            this.xEast = xEast;
+            this.xNorth = xNorth;
+            this.x0 = x0;
+            this.yEast = yEast;
+            this.yNorth = yNorth;
+            this.y0 = y0;
+        }
+
+        /**
+         * Matches the extreme points of Switzerland with the bounds of the map, good to about a map unit.
+         */
+        public static Calibration fromBounds(CantonGeometry geometry) {
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (Canton canton : CANTONS) {
+                PathGeometry outline = geometry.outline(canton);
+                minX = Math.min(minX, outline.getMinX());
+                minY = Math.min(minY, outline.getMinY());
+                maxX = Math.max(maxX, outline.getMaxX());
+                maxY = Math.max(maxY, outline.getMaxY());
+            }
+            double scaleX = (maxX - minX) / (EAST - WEST);
+            // north is up on the map
+            double scaleY = (minY - maxY) / (NORTH - SOUTH);
+            return new Calibration(scaleX, 0, minX - WEST * scaleX, 0, scaleY, maxY - SOUTH * scaleY);
+        }
+
+        /**
+         * Fits the transform to at least three points known both in LV95 and on the map, by least squares.
+         */
+        public static Calibration fromControlPoints(double[] east, double[] north, double[] mapX, double[] mapY) {
+            int n = east.length;
+            if (n < 3 || north.length != n || mapX.length != n || mapY.length != n) {
+                throw new IllegalArgumentException("at least three control points needed");
+            }
+            // normal equations of [east north 1] * [a b c] = map, solved for both map axes
+            double[][] normal = new double[3][3];
+            double[] rhsX = new double[3];
+            double[] rhsY = new double[3];
+            for (int i = 0; i < n; i++) {
+                double[] row = {east[i], north[i], 1};
+                for (int j = 0; j < 3; j++) {
+                    for (int k = 0; k < 3; k++) {
+                        normal[j][k] += row[j] * row[k];
+                    }
+                    rhsX[j] += row[j] * mapX[i];
+                    rhsY[j] += row[j] * mapY[i];
+                }
+            }
+            double[] x = solve(normal, rhsX);
+            double[] y = solve(normal, rhsY);
+            return new Calibration(x[0], x[1], x[2], y[0], y[1], y[2]);
+        }
+
+        // Cramer's rule, the system is 3 by 3
+        private static double[] solve(double[][] m, double[] b) {
+            double det = det(m[0][0], m[0][1], m[0][2], m[1][0], m[1][1], m[1][2], m[2][0], m[2][1], m[2][2]);
+            if (Math.abs(det) < 1e-12) {
+                throw new IllegalArgumentException("control points must not lie on a line");
+            }
+            return new double[]{
+                    det(b[0], m[0][1], m[0][2], b[1], m[1][1], m[1][2], b[2], m[2][1], m[2][2]) / det,
+                    det(m[0][0], b[0], m[0][2], m[1][0], b[1], m[1][2], m[2][0], b[2], m[2][2]) / det,
+                    det(m[0][0], m[0][1], b[0], m[1][0], m[1][1], b[1], m[2][0], m[2][1], b[2]) / det};
+        }
+
+        private static double det(double a, double b, double c, double d, double e, double f, double g, double h, double i) {
+            return a * (e * i - f * h) - b * (d * i - f * g) + c * (d * h - e * g);
+        }
+
+        /**
+         * @return the x coordinate on the canton map of the LV95 coordinates
+         */
+        public double mapX(double east, double north) {
+            return xEast * east + xNorth * north + x0;
+        }
+
+        public double mapY(double east, double north) {
+            return yEast * east + yNorth * north + y0;
+        }
+    }
+
+    private final ShapeIndex index;
+    private final PickBuffer pickBuffer;
+    private final Calibration calibration;
+
+    private final int originX;
+    private final int originY;
+    private final int columns;
+    private final int rows;
+    // one bit per pixel of the pick buffer an outline passes through
+    private final long[] border;
+
+    /**
+     * Calibrated by the bounds of the map, see {@link Calibration#fromBounds(CantonGeometry)}.
+     */
+    public CantonGeocoder(CantonGeometry geometry) {
+        this(geometry, Calibration.fromBounds(geometry));
+    }
+
+    public CantonGeocoder(CantonGeometry geometry, Calibration calibration) {
+        this.index = geometry.shapeIndex();
+        this.pickBuffer = geometry.pickBuffer();
+        this.calibration = calibration;
+        originX = pickBuffer.getOriginX();
+        originY = pickBuffer.getOriginY();
+        columns = pickBuffer.getWidth();
+        rows = pickBuffer.getHeight();
+        border = new long[(columns * rows + 63) / 64];
+
+        // every pixel a segment's bounding box touches is on a border
+        for (int shape = 0; shape < index.size(); shape++) {
+            float[] edges = index.edges(shape);
+            for (int i = 0; i < edges.length; i += 4) {
+                int column0 = column(Math.min(edges[i], edges[i + 2]));
+                int column1 = column(Math.max(edges[i], edges[i + 2]));
+                int row0 = row(Math.min(edges[i + 1], edges[i + 3]));
+                int row1 = row(Math.max(edges[i + 1], edges[i + 3]));
+                for (int row = row0; row <= row1; row++) {
+                    for (int column = column0; column <= column1; column++) {
+                        int pixel = row * columns + column;
+                        border[pixel >>> 6] |= 1L << pixel;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the canton at the LV95 coordinates, null if they are outside of Switzerland
+     */
+    public Canton lookup(double east, double north) {
+        int ordinal = lookupOrdinal(east, north);
+        return ordinal < 0 ? null : CANTONS[ordinal];
+    }
+
+    /**
+     * @return the canton at the WGS84 coordinates, in degrees, null if they are outside of Switzerland
+     */
+    public Canton lookupWgs84(double latitude, double longitude) {
+        return lookup(lv95East(latitude, longitude), lv95North(latitude, longitude));
+    }
+
+    /**
+     * @return the ordinal of the canton at the LV95 coordinates, -1 if they are outside of Switzerland
+     */
+    public int lookupOrdinal(double east, double north) {
+        return ordinalAt(calibration.mapX(east, north), calibration.mapY(east, north));
+    }
+
+    /**
+     * Looks many LV95 coordinates up at once, on all cores.
+     *
+     * @return the ordinal of the canton of every point, -1 for points outside of Switzerland
+     */
+    public int[] lookupAll(double[] east, double[] north) {
+        return lookupAll(east, north, false);
+    }
+
+    /**
+     * Looks many WGS84 coordinates up at once, on all cores.
+     *
+     * @return the ordinal of the canton of every point, -1 for points outside of Switzerland
+     */
+    public int[] lookupAllWgs84(double[] latitudes, double[] longitudes) {
+        return lookupAll(latitudes, longitudes, true);
+    }
+
+    private int[] lookupAll(double[] first, double[] second, boolean wgs84) {
+        if (first.length != second.length) {
+            throw new IllegalArgumentException("coordinate arrays differ in length");
+        }
+        int[] result = new int[first.length];
+        int chunks = (first.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int end = Math.min(first.length, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                double east = wgs84 ? lv95East(first[i], second[i]) : first[i];
+                double north = wgs84 ? lv95North(first[i], second[i]) : second[i];
+                result[i] = lookupOrdinal(east, north);
+            }
+        });
+        return result;
+    }
+
+    private int ordinalAt(double x, double y) {
+        double column = x - originX;
+        double row = y - originY;
+        if (!(column >= 0 && row >= 0 && column < columns && row < rows)) {
+            return OUTSIDE;
+        }
+        int pixel = (int) row * columns + (int) column;
+        if ((border[pixel >>> 6] & 1L << pixel) != 0) {
+            return index.find(x, y);
+        }
+        return pickBuffer.pixel((int) column, (int) row);
+    }
+
+    private int column(float x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor(x - originX)));
+    }
+
+    private int row(float y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y - originY)));
+    }
+
+    /**
+     * @return the LV95 east coordinate of WGS84 coordinates in degrees, by the approximate formulas of swisstopo (about a meter)
+     */
+    public static double lv95East(double latitude, double longitude) {
+        double phi = (latitude * 3600 - 169_028.66) / 10_000;
+        double lambda = (longitude * 3600 - 26_782.5) / 10_000;
+        return 2_600_072.37 + 211_455.93 * lambda - 10_938.51 * lambda * phi
+                - 0.36 * lambda * phi * phi - 44.54 * lambda * lambda * lambda;
+    }
+
+    /**
+     * @return the LV95 north coordinate of WGS84 coordinates in degrees, by the approximate formulas of swisstopo (about a meter)
+     */
+    public static double lv95North(double latitude, double longitude) {
+        double phi = (latitude * 3600 - 169_028.66) / 10_000;
+        double lambda = (longitude * 3600 - 26_782.5) / 10_000;
+        return 1_200_147.07 + 308_807.95 * phi + 3_745.25 * lambda * lambda + 76.63 * phi * phi
+                - 194.56 * lambda * lambda * phi + 119.79 * phi * phi * phi;
+    }
+}
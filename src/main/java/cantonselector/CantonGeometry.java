@@ -0,0 +1,349 @@
+package cantonselector;
+
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static cantonselector.SkiRegion.Canton;
+
+/**
+ * The outlines of all cantons, indexed by {@link Canton}.
+ * They are read from the binary resource compiled at build time by {@link CantonGeometryCompiler},
+ * levels of detail included. The svg map is only parsed and simplified when that resource is missing.
+ * <p>
+ * Instances are immutable and can be shared between threads. {@link #shared()} gives the one instance
+ * all controls of the process use, so the map is loaded once no matter how many controls are created.
+ */
+public final class CantonGeometry {
+    public static final String RESOURCE = "/images/canton-geometry.bin";
+
+    // layout of the binary resource, all values big endian:
+    // int magic, short version, short canton count, short level count, the double tolerance of every level,
+    // per level and canton (by ordinal): int command count, int coordinate count,
+    // then the float coordinates of all levels and cantons, then the command bytes of all levels and cantons
+    static final int MAGIC = 0x43414E54;
+    static final short VERSION = 2;
+
+    /**
+     * Simplification tolerance, in map units, of each level of detail. Level 0 is the original outline.
+     */
+    public static final double[] LOD_TOLERANCES = {0, 0.6, 1.5, 3.5};
+
+    // how far, in pixels, a simplified outline may be off on screen
+    private static final double LOD_SCREEN_TOLERANCE = 0.35;
+
+    // the borders of neighbouring cantons do not match exactly, their union keeps slivers along them
+    // as tiny holes and islands, which are dropped (in square map units)
+    private static final double MIN_MERGED_AREA = 1;
+
+    private static final System.Logger LOGGER = System.getLogger(CantonGeometry.class.getName());
+    private static final Canton[] CANTONS = Canton.values();
+
+    private static volatile CantonGeometry shared;
+
+    private final PathGeometry[] outlines;
+    // [level][canton ordinal]
+    private final PathGeometry[][] levelsOfDetail;
+    // shape indices are canton ordinals
+    private final ShapeIndex shapeIndex;
+    // rasterized on first use, only the canvas renderer needs it
+    private volatile PickBuffer pickBuffer;
+    // unions of cantons by canton mask (see CantonSelection), computed on first use
+    private final Map<Long, PathGeometry> mergedOutlines = new ConcurrentHashMap<>();
+
+    private CantonGeometry(PathGeometry[][] levelsOfDetail) {
+        this.levelsOfDetail = levelsOfDetail;
+        outlines = levelsOfDetail[0];
+        shapeIndex = new ShapeIndex(outlines);
+    }
+
+    // simplifies the outlines for every level of detail, the compiled resource has them already
+    private static CantonGeometry simplified(PathGeometry[] outlines) {
+        PathGeometry[][] levelsOfDetail = new PathGeometry[LOD_TOLERANCES.length][];
+        levelsOfDetail[0] = outlines;
+        for (int level = 1; level < LOD_TOLERANCES.length; level++) {
+            levelsOfDetail[level] = new PathGeometry[outlines.length];
+            for (int i = 0; i < outlines.length; i++) {
+                levelsOfDetail[level][i] = outlines[i].simplify(LOD_TOLERANCES[level]);
+            }
+        }
+        return new CantonGeometry(levelsOfDetail);
+    }
+
+    /**
+     * @return the geometry shared by the whole process, loaded on first use
+     */
+    public static CantonGeometry shared() throws IOException {
+        CantonGeometry result = shared;
+        if (result == null) {
+            synchronized (CantonGeometry.class) {
+                result = shared;
+                if (result == null) {
+                    result = load();
+                    shared = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Loads the outlines from the compiled resource, or from the svg map if the resource is missing.
+     */
+    public static CantonGeometry load() throws IOException {
+        URL resource = CantonGeometry.class.getResource(RESOURCE);
+        if (resource != null) {
+            try {
+                return read(map(resource));
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(System.Logger.Level.WARNING, "could not read " + RESOURCE + ", falling back to the svg map", e);
+            }
+        }
+        return fromSvg();
+    }
+
+    /**
+     * Parses the outlines from the svg map.
+     */
+    public static CantonGeometry fromSvg() throws IOException {
+        return fromPathData(CantonSvgLoader.load());
+    }
+
+    static CantonGeometry fromPathData(Map<Canton, String> pathData) throws IOException {
+        PathGeometry[] outlines = new PathGeometry[CANTONS.length];
+        for (Canton canton : CANTONS) {
+            String d = pathData.get(canton);
+            if (d == null) {
+                throw new IOException("no outline for canton " + canton.getShortName());
+            }
+            outlines[canton.ordinal()] = SvgPathParser.parse(d);
+        }
+        return simplified(outlines);
+    }
+
+    public PathGeometry outline(Canton canton) {
+        return outlines[canton.ordinal()];
+    }
+
+    /**
+     * @param cantons bit mask of canton ordinals, see {@link CantonSelection}
+     * @return the union of the outlines of the cantons, merged once and then kept for every later call
+     */
+    PathGeometry outline(long cantons) {
+        if (Long.bitCount(cantons) == 1) {
+            return outlines[Long.numberOfTrailingZeros(cantons)];
+        }
+        return mergedOutlines.computeIfAbsent(cantons, this::merge);
+    }
+
+    private PathGeometry merge(long cantons) {
+        Area area = new Area();
+        for (long rest = cantons; rest != 0; rest &= rest - 1) {
+            area.add(new Area(outlines[Long.numberOfTrailingZeros(rest)].toShape()));
+        }
+        Path2D.Float merged = new Path2D.Float(Path2D.WIND_NON_ZERO);
+        Path2D.Float subpath = new Path2D.Float();
+        float[] segment = new float[6];
+        for (PathIterator it = area.getPathIterator(null); !it.isDone(); it.next()) {
+            switch (it.currentSegment(segment)) {
+                case PathIterator.SEG_MOVETO:
+                    appendUnlessSliver(merged, subpath);
+                    subpath.reset();
+                    subpath.moveTo(segment[0], segment[1]);
+                    break;
+                case PathIterator.SEG_LINETO:
+                    subpath.lineTo(segment[0], segment[1]);
+                    break;
+                case PathIterator.SEG_QUADTO:
+                    subpath.quadTo(segment[0], segment[1], segment[2], segment[3]);
+                    break;
+                case PathIterator.SEG_CUBICTO:
+                    subpath.curveTo(segment[0], segment[1], segment[2], segment[3], segment[4], segment[5]);
+                    break;
+                default:
+                    subpath.closePath();
+            }
+        }
+        appendUnlessSliver(merged, subpath);
+        return PathGeometry.fromShape(merged);
+    }
+
+    private static void appendUnlessSliver(Path2D merged, Path2D subpath) {
+        if (Math.abs(area(subpath)) >= MIN_MERGED_AREA) {
+            merged.append(subpath, false);
+        }
+    }
+
+    // shoelace formula over the flattened outline, the sign depends on the direction
+    static double area(Shape shape) {
+        double area = 0;
+        double startX = 0;
+        double startY = 0;
+        double x = 0;
+        double y = 0;
+        double[] segment = new double[6];
+        for (PathIterator it = shape.getPathIterator(null, 0.25); !it.isDone(); it.next()) {
+            int type = it.currentSegment(segment);
+            if (type == PathIterator.SEG_MOVETO) {
+                startX = x = segment[0];
+                startY = y = segment[1];
+            } else {
+                double toX = type == PathIterator.SEG_CLOSE ? startX : segment[0];
+                double toY = type == PathIterator.SEG_CLOSE ? startY : segment[1];
+                area += x * toY - toX * y;
+                x = toX;
+                y = toY;
+            }
+        }
+        return (area + x * startY - startX * y) / 2;
+    }
+
+    /**
+     * @return the canton at the given map coordinates, or null if the point is outside of Switzerland
+     */
+    public Canton cantonAt(double x, double y) {
+        int index = shapeIndex.find(x, y);
+        return index < 0 ? null : CANTONS[index];
+    }
+
+    /**
+     * @return the index over the outlines, shape indices are canton ordinals
+     */
+    ShapeIndex shapeIndex() {
+        return shapeIndex;
+    }
+
+    /**
+     * @return a raster of canton ordinals covering the map, built on first use
+     */
+    public PickBuffer pickBuffer() {
+        PickBuffer result = pickBuffer;
+        if (result == null) {
+            synchronized (this) {
+                result = pickBuffer;
+                if (result == null) {
+                    result = new PickBuffer(shapeIndex);
+                    pickBuffer = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param level the level of detail, 0 being the original outline
+     * @see #levelOfDetail(double)
+     */
+    public PathGeometry outline(Canton canton, int level) {
+        return levelsOfDetail[level][canton.ordinal()];
+    }
+
+    /**
+     * @param scale the factor the map is drawn with
+     * @return the coarsest level of detail that is still indistinguishable from the original at this scale
+     */
+    public static int levelOfDetail(double scale) {
+        double tolerance = LOD_SCREEN_TOLERANCE / scale;
+        int level = 0;
+        while (level + 1 < LOD_TOLERANCES.length && LOD_TOLERANCES[level + 1] <= tolerance) {
+            level++;
+        }
+        return level;
+    }
+
+    // a file resource (exploded classes dir) is memory mapped, anything else (jar) is copied into a direct buffer
+    private static ByteBuffer map(URL resource) throws IOException {
+        if ("file".equals(resource.getProtocol())) {
+            try (FileChannel channel = FileChannel.open(Path.of(resource.toURI()), StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (URISyntaxException e) {
+                throw new IOException(e);
+            }
+        }
+        try (InputStream in = resource.openStream()) {
+            byte[] bytes = in.readAllBytes();
+            return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        }
+    }
+
+    static CantonGeometry read(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+            throw new IOException("not a canton geometry resource of version " + VERSION);
+        }
+        if (buffer.getShort() != CANTONS.length) {
+            throw new IOException("canton count does not match " + Canton.class.getName());
+        }
+        int levels = buffer.getShort();
+        if (levels != LOD_TOLERANCES.length) {
+            throw new IOException("levels of detail do not match LOD_TOLERANCES");
+        }
+        for (double tolerance : LOD_TOLERANCES) {
+            if (buffer.getDouble() != tolerance) {
+                throw new IOException("levels of detail do not match LOD_TOLERANCES");
+            }
+        }
+        int outlineCount = levels * CANTONS.length;
+        int[] commandCounts = new int[outlineCount];
+        int[] coordCounts = new int[outlineCount];
+        for (int i = 0; i < outlineCount; i++) {
+            commandCounts[i] = buffer.getInt();
+            coordCounts[i] = buffer.getInt();
+        }
+        float[][] coords = new float[outlineCount][];
+        for (int i = 0; i < outlineCount; i++) {
+            coords[i] = new float[coordCounts[i]];
+            buffer.asFloatBuffer().get(coords[i]);
+            buffer.position(buffer.position() + coordCounts[i] * Float.BYTES);
+        }
+        PathGeometry[][] levelsOfDetail = new PathGeometry[levels][CANTONS.length];
+        for (int i = 0; i < outlineCount; i++) {
+            byte[] commands = new byte[commandCounts[i]];
+            buffer.get(commands);
+            levelsOfDetail[i / CANTONS.length][i % CANTONS.length] = new PathGeometry(commands, coords[i]);
+        }
+        return new CantonGeometry(levelsOfDetail);
+    }
+
+    void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeShort(outlines.length);
+        data.writeShort(levelsOfDetail.length);
+        for (double tolerance : LOD_TOLERANCES) {
+            data.writeDouble(tolerance);
+        }
+        for (PathGeometry[] level : levelsOfDetail) {
+            for (PathGeometry outline : level) {
+                data.writeInt(outline.getCommandCount());
+                data.writeInt(outline.getCoordCount());
+            }
+        }
+        for (PathGeometry[] level : levelsOfDetail) {
+            for (PathGeometry outline : level) {
+                for (float coord : outline.coords()) {
+                    data.writeFloat(coord);
+                }
+            }
+        }
+        for (PathGeometry[] level : levelsOfDetail) {
+            for (PathGeometry outline : level) {
+                data.write(outline.commands());
+            }
+        }
+        data.flush();
+    }
+}
@@ -0,0 +1,35 @@
+package cantonselector;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Build step that compiles the svg map into the binary resource read by {@link CantonGeometry},
+ * the outlines simplified for every level of detail included, so loading does not simplify them.
+ * Run by the {@code compileCantonGeometry} gradle task with the svg and the output file as arguments.
+ */
+final class CantonGeometryCompiler {
+    private CantonGeometryCompiler() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("usage: CantonGeometryCompiler <svg> <output>");
+        }
+        Path svg = Path.of(args[0]);
+        Path output = Path.of(args[1]);
+
+        CantonGeometry geometry;
+        try (InputStream in = Files.newInputStream(svg)) {
+            geometry = CantonGeometry.fromPathData(CantonSvgLoader.load(in));
+        }
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output))) {
+            geometry.write(out);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package cantonselector;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+
+import static cantonselector.SkiRegion.Canton;
+
+/**
+ * The set of selected cantons, kept as a bit mask with one bit per {@link Canton} ordinal.
+ * Every operation is a single mask update, so selecting all cantons costs no more than selecting one.
+ * Listeners are told which cantons were added and which were removed.
+ * <p>
+ * Like the controls it belongs to, a selection is meant to be used on the FX Application Thread.
+ */
+public final class CantonSelection {
+    private static final Canton[] CANTONS = Canton.values();
+    static final long ALL = (1L << CANTONS.length) - 1;
+
+    /**
+     * Receives the cantons that changed with every modification of a selection.
+     */
+    public interface Listener {
+        void changed(CantonSelection selection, EnumSet<Canton> added, EnumSet<Canton> removed);
+    }
+
+    // the same as a listener, but told about the change as bit masks, so no sets are created
+    interface MaskListener {
+        void changed(long added, long removed);
+    }
+
+    // copied on every change, so notifying them neither allocates an iterator nor trips over listeners changed meanwhile
+    private Listener[] listeners = new Listener[0];
+    private MaskListener[] maskListeners = new MaskListener[0];
+    private long mask;
+
+    public boolean contains(Canton canton) {
+        return (mask & bit(canton)) != 0;
+    }
+
+    public boolean isEmpty() {
+        return mask == 0;
+    }
+
+    public int size() {
+        return Long.bitCount(mask);
+    }
+
+    /**
+     * @return the selected cantons, a copy
+     */
+    public EnumSet<Canton> toSet() {
+        return toSet(mask);
+    }
+
+    /**
+     * @return the only selected canton, null if none or more than one canton is selected
+     */
+    public Canton single() {
+        return Long.bitCount(mask) == 1 ? CANTONS[Long.numberOfTrailingZeros(mask)] : null;
+    }
+
+    /**
+     * Replaces the selection.
+     */
+    public void set(Collection<Canton> cantons) {
+        update(mask(cantons));
+    }
+
+    public void add(Canton... cantons) {
+        update(mask | mask(List.of(cantons)));
+    }
+
+    public void remove(Canton... cantons) {
+        update(mask & ~mask(List.of(cantons)));
+    }
+
+    /**
+     * Selects the given cantons that are not selected and deselects those that are.
+     */
+    public void toggle(Canton... cantons) {
+        update(mask ^ mask(List.of(cantons)));
+    }
+
+    /**
+     * Adds the given cantons to the selection.
+     */
+    public void union(Collection<Canton> cantons) {
+        update(mask | mask(cantons));
+    }
+
+    /**
+     * Keeps only the selected cantons that are also in the given ones.
+     */
+    public void intersect(Collection<Canton> cantons) {
+        update(mask & mask(cantons));
+    }
+
+    public void selectAll() {
+        update(ALL);
+    }
+
+    public void clear() {
+        update(0);
+    }
+
+    public void addListener(Listener listener) {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+
+    public void removeListener(Listener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i].equals(listener)) {
+                Listener[] rest = new Listener[listeners.length - 1];
+                System.arraycopy(listeners, 0, rest, 0, i);
+                System.arraycopy(listeners, i + 1, rest, i, rest.length - i);
+                listeners = rest;
+                return;
+            }
+        }
+    }
+
+    void addListener(MaskListener listener) {
+        maskListeners = Arrays.copyOf(maskListeners, maskListeners.length + 1);
+        maskListeners[maskListeners.length - 1] = listener;
+    }
+
+    long getMask() {
+        return mask;
+    }
+
+    void setMask(long mask) {
+        update(mask & ALL);
+    }
+
+    void toggleMask(long mask) {
+        update(this.mask ^ (mask & ALL));
+    }
+
+    private void update(long newMask) {
+        long oldMask = mask;
+        if (newMask == oldMask) {
+            return;
+        }
+        mask = newMask;
+        MaskListener[] notifiedMaskListeners = maskListeners;
+        for (int i = 0; i < notifiedMaskListeners.length; i++) {
+            notifiedMaskListeners[i].changed(newMask & ~oldMask, oldMask & ~newMask);
+        }
+        Listener[] notifiedListeners = listeners;
+        if (notifiedListeners.length == 0) {
+            return;
+        }
+        EnumSet<Canton> added = toSet(newMask & ~oldMask);
+        EnumSet<Canton> removed = toSet(oldMask & ~newMask);
+        for (int i = 0; i < notifiedListeners.length; i++) {
+            notifiedListeners[i].changed(this, added, removed);
+        }
+    }
+
+    static long bit(Canton canton) {
+        return 1L << canton.ordinal();
+    }
+
+    static long mask(Collection<Canton> cantons) {
+        long result = 0;
+        for (Canton canton : cantons) {
+            result |= bit(canton);
+        }
+        return result;
+    }
+
+    static EnumSet<Canton> toSet(long mask) {
+        EnumSet<Canton> result = EnumSet.noneOf(Canton.class);
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            result.add(CANTONS[Long.numberOfTrailingZeros(rest)]);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return toSet().toString();
+    }
+}
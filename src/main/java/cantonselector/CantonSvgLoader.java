@@ -0,0 +1,109 @@
+package cantonselector;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import static cantonselector.SkiRegion.Canton;
+
+/**
+ * Reads the path data of the cantons out of the swiss map svg with a streaming pull parser.
+ * Only the {@code id} and {@code d} attributes of the {@code <path>} elements are looked at,
+ * no DOM is built and parsing stops as soon as every {@link Canton} has been found.
+ */
+public final class CantonSvgLoader {
+    public static final String SVG_RESOURCE = "/images/Suisse_cantons.svg";
+
+    private static final Map<String, Canton> CANTONS_BY_ID = new HashMap<>();
+
+    static {
+        for (Canton canton : Canton.values()) {
+            CANTONS_BY_ID.put(canton.getShortName(), canton);
+        }
+    }
+
+    private CantonSvgLoader() {
+    }
+
+    /**
+     * Loads the path data of the bundled map.
+     *
+     * @return the svg path data ({@code d} attribute) for every canton found in the map
+     */
+    public static EnumMap<Canton, String> load() throws IOException {
+        try (InputStream in = CantonSvgLoader.class.getResourceAsStream(SVG_RESOURCE)) {
+            if (in == null) {
+                throw new IOException("resource not found: " + SVG_RESOURCE);
+            }
+            return load(in);
+        }
+    }
+
+    /**
+     * Loads the path data of the cantons from the given svg document.
+     * Paths whose id is not the short name of a canton are skipped.
+     *
+     * @return the svg path data ({@code d} attribute) for every canton found in the document
+     */
+    public static EnumMap<Canton, String> load(InputStream in) throws IOException {
+        EnumMap<Canton, String> result = new EnumMap<>(Canton.class);
+        readPaths(in, path -> {
+            Canton canton = CANTONS_BY_ID.get(path.getAttributeValue(null, "id"));
+            String d = path.getAttributeValue(null, "d");
+            if (canton != null && d != null) {
+                result.putIfAbsent(canton, d);
+            }
+            return result.size() < CANTONS_BY_ID.size();
+        });
+        return result;
+    }
+
+    /**
+     * Receives the {@code <path>} elements of a document, positioned on their start tag.
+     */
+    interface PathVisitor {
+        /**
+         * @return false to stop reading the document
+         */
+        boolean visit(XMLStreamReader path);
+    }
+
+    /**
+     * Streams through an svg document and hands every {@code <path>} element to the visitor.
+     */
+    static void readPaths(InputStream in, PathVisitor visitor) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = newInputFactory().createXMLStreamReader(in);
+            boolean proceed = true;
+            while (proceed && reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "path".equals(reader.getLocalName())) {
+                    proceed = visitor.visit(reader);
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("could not read svg paths", e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                }
+            }
+        }
+    }
+
+    private static XMLInputFactory newInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+}
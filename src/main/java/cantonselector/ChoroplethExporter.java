@@ -0,0 +1,244 @@
+package cantonselector;
+
+import javafx.scene.paint.Color;
+
+import javax.imageio.ImageIO;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static cantonselector.SkiRegion.Canton;
+
+/**
+ * Writes maps with a color per canton to PNG or SVG files, without JavaFX running and without a display.
+ * The PNG files are drawn with Java2D, the SVG files are written as text. The outlines are prepared once
+ * per exporter, so an exporter is meant to write many maps, see {@link #exportAll}.
+ * <p>
+ * Instances are immutable and can be used from any thread.
+ */
+public final class ChoroplethExporter {
+    /**
+     * The file format of the maps.
+     */
+    public enum Format {
+        PNG, SVG
+    }
+
+    /**
+     * One map to write.
+     */
+    public static final class Job {
+        private final Path target;
+        private final Map<Canton, Color> colors;
+
+        /**
+         * @param colors the fill of every canton, cantons missing are drawn in the base color
+         */
+        public Job(Path target, Map<Canton, ? extends Color> colors) {
+            this.target = target;
+            this.colors = colors.isEmpty() ? new EnumMap<>(Canton.class) : new EnumMap<>(colors);
+        }
+
+        public Path getTarget() {
+            return target;
+        }
+    }
+
+    /**
+     * How a batch of maps went.
+     */
+    public static final class Report {
+        private final int written;
+        private final int failed;
+        private final long nanos;
+
+        private Report(int written, int failed, long nanos) {
+            this.written = written;
+            this.failed = failed;
+            this.nanos = nanos;
+        }
+
+        public int getWritten() {
+            return written;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public double getSeconds() {
+            return nanos / 1e9;
+        }
+
+        public double getImagesPerSecond() {
+            return nanos == 0 ? 0 : written / getSeconds();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d maps written, %d failed in %.2f s (%.1f maps/s)", written, failed, getSeconds(), getImagesPerSecond());
+        }
+    }
+
+    private static final System.Logger LOGGER = System.getLogger(ChoroplethExporter.class.getName());
+    private static final Canton[] CANTONS = Canton.values();
+
+    private final int width;
+    private final int height;
+    private final double scale;
+    private final Color baseColor;
+    // by canton ordinal, in the level of detail of the image size
+    private final Shape[] shapes;
+    private final String[] svgPaths;
+
+    /**
+     * @param width     width of the maps in pixels, the height follows from the map
+     * @param baseColor fill of the cantons without a color of their own, null leaves them out
+     */
+    public ChoroplethExporter(CantonGeometry geometry, int width, Color baseColor) {
+        this.width = width;
+        scale = width / RegionSelectorControl.ARTBOARD_WIDTH;
+        height = (int) Math.ceil(RegionSelectorControl.ARTBOARD_HEIGHT * scale);
+        this.baseColor = baseColor;
+
+        int level = CantonGeometry.levelOfDetail(scale);
+        shapes = new Shape[CANTONS.length];
+        svgPaths = new String[CANTONS.length];
+        for (Canton canton : CANTONS) {
+            PathGeometry outline = geometry.outline(canton, level);
+            shapes[canton.ordinal()] = outline.toShape();
+            svgPaths[canton.ordinal()] = outline.toSvgContent();
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Writes a single map on the calling thread.
+     */
+    public void export(Job job, Format format) throws IOException {
+        if (format == Format.PNG) {
+            writePng(job, new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB));
+        } else {
+            writeSvg(job);
+        }
+    }
+
+    /**
+     * Writes the maps on the given number of threads and waits until all are written.
+     * Every thread takes the next map as soon as it is done with one and draws into an image of its own.
+     * A map that cannot be written is logged and counted as failed, the others are written nevertheless.
+     *
+     * @param threads the number of threads, {@link Runtime#availableProcessors()} to use all cores
+     */
+    public Report exportAll(List<Job> jobs, Format format, int threads) {
+        int workers = Math.max(1, Math.min(threads, jobs.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(workers, DaemonThreads.named("choropleth-exporter"));
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger written = new AtomicInteger();
+        long start = System.nanoTime();
+        try {
+            CompletableFuture<?>[] running = new CompletableFuture<?>[workers];
+            for (int i = 0; i < workers; i++) {
+                running[i] = CompletableFuture.runAsync(() -> {
+                    BufferedImage image = format == Format.PNG ? new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB) : null;
+                    for (int job = next.getAndIncrement(); job < jobs.size(); job = next.getAndIncrement()) {
+                        try {
+                            if (format == Format.PNG) {
+                                writePng(jobs.get(job), image);
+                            } else {
+                                writeSvg(jobs.get(job));
+                            }
+                            written.incrementAndGet();
+                        } catch (IOException | RuntimeException e) {
+                            LOGGER.log(System.Logger.Level.WARNING, "map not written to " + jobs.get(job).getTarget(), e);
+                            failed.incrementAndGet();
+                        }
+                    }
+                }, executor);
+            }
+            CompletableFuture.allOf(running).join();
+        } finally {
+            executor.shutdown();
+        }
+        return new Report(written.get(), failed.get(), System.nanoTime() - start);
+    }
+
+    private void writePng(Job job, BufferedImage image) throws IOException {
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, width, height);
+            g.setComposite(AlphaComposite.SrcOver);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            g.scale(scale, scale);
+            for (int i = 0; i < shapes.length; i++) {
+                Color fill = fillOf(job, i);
+                if (fill != null) {
+                    g.setColor(new java.awt.Color((float) fill.getRed(), (float) fill.getGreen(), (float) fill.getBlue(), (float) fill.getOpacity()));
+                    g.fill(shapes[i]);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        createParent(job.target);
+        if (!ImageIO.write(image, "png", job.target.toFile())) {
+            throw new IOException("no png writer");
+        }
+    }
+
+    private void writeSvg(Job job) throws IOException {
+        createParent(job.target);
+        try (Writer out = Files.newBufferedWriter(job.target, StandardCharsets.UTF_8)) {
+            out.write(String.format(Locale.ROOT, "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" viewBox=\"0 0 %s %s\">%n",
+                    width, height, RegionSelectorControl.ARTBOARD_WIDTH, RegionSelectorControl.ARTBOARD_HEIGHT));
+            for (int i = 0; i < svgPaths.length; i++) {
+                Color fill = fillOf(job, i);
+                if (fill != null) {
+                    out.write(String.format(Locale.ROOT, "<path id=\"%s\" fill=\"#%02x%02x%02x\" fill-opacity=\"%.3f\" d=\"",
+                            CANTONS[i].getShortName(), Math.round(fill.getRed() * 255), Math.round(fill.getGreen() * 255),
+                            Math.round(fill.getBlue() * 255), fill.getOpacity()));
+                    out.write(svgPaths[i]);
+                    out.write("\"/>\n");
+                }
+            }
+            out.write("</svg>\n");
+        }
+    }
+
+    private Color fillOf(Job job, int ordinal) {
+        Color fill = job.colors.get(CANTONS[ordinal]);
+        return fill != null ? fill : baseColor;
+    }
+
+    private static void createParent(Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package cantonselector;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Maps values to a fixed number of colors, for coloring the cantons by a value.
+ * The value range is divided into buckets of equal size, each with a color interpolated between the stops
+ * once when the ramp is created. Values outside the range fall into the first or the last bucket.
+ */
+public final class ColorRamp {
+    /**
+     * Bucket of values that have no color, like {@link Double#NaN}.
+     */
+    public static final int NO_BUCKET = -1;
+
+    private final double min;
+    private final double max;
+    private final Color[] colors;
+
+    /**
+     * @param buckets number of colors, at least one
+     * @param stops   at least one color, spread evenly over the range
+     */
+    public ColorRamp(double min, double max, int buckets, Color... stops) {
+        if (!(max > min) || buckets < 1 || stops.length == 0) {
+            throw new IllegalArgumentException("invalid color ramp");
+        }
+        this.min = min;
+        this.max = max;
+        colors = new Color[buckets];
+        for (int i = 0; i < buckets; i++) {
+            // the color in the middle of the bucket
+            double position = (i + 0.5) / buckets * (stops.length - 1);
+            int stop = Math.min((int) position, stops.length - 1);
+            colors[i] = stop + 1 < stops.length ? stops[stop].interpolate(stops[stop + 1], position - stop) : stops[stop];
+        }
+    }
+
+    public int bucketOf(double value) {
+        if (Double.isNaN(value)) {
+            return NO_BUCKET;
+        }
+        int bucket = (int) ((value - min) / (max - min) * colors.length);
+        return Math.max(0, Math.min(colors.length - 1, bucket));
+    }
+
+    /**
+     * @return the color of the bucket, null for {@link #NO_BUCKET}
+     */
+    public Color color(int bucket) {
+        return bucket == NO_BUCKET ? null : colors[bucket];
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public int getBucketCount() {
+        return colors.length;
+    }
+}
@@ -0,0 +1,23 @@
+package cantonselector;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Threads of the background work of the controls, daemons so they never keep the application alive.
+ */
+final class DaemonThreads {
+    private DaemonThreads() {
+    }
+
+    /**
+     * @param name name of every thread of the factory, as shown in thread dumps
+     * @return a factory of daemon threads
+     */
+    static ThreadFactory named(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
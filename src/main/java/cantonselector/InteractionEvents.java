@@ -0,0 +1,86 @@
+package cantonselector;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events of the {@link RegionSelectorControl}: a region hovered, a region selected
+ * and cantons recolored. The duration of a hover or select event is the time from the mouse event to the
+ * pulse that brings the fills up to date, a recolor event lasts as long as the fills take to update.
+ * <p>
+ * While the events are not recorded a control pays for a check per interaction and allocates nothing.
+ * The events end in the layout pass of the control, so they line up by their end time with the JavaFX
+ * pulse events of the same thread, recorded when JavaFX runs with {@code -Djavafx.enableJFR=true}.
+ */
+final class InteractionEvents {
+    static final EventType HOVER = EventType.getEventType(HoverEvent.class);
+    static final EventType SELECT = EventType.getEventType(SelectEvent.class);
+    static final EventType RECOLOR = EventType.getEventType(RecolorEvent.class);
+
+    private InteractionEvents() {
+    }
+
+    @Category({"JavaFX", "Canton Selector"})
+    @StackTrace(false)
+    abstract static class InteractionEvent extends Event {
+        @Label("Region Id")
+        @Description("Id of the region in the catalog of the partition, -1 if the cantons are no region")
+        int regionId = RegionCatalog.NONE;
+
+        @Label("Region")
+        String region;
+
+        @Label("Nodes Touched")
+        @Description("Nodes whose fill or shape changed")
+        int nodesTouched;
+
+        @Label("Since Layout Start")
+        @Description("Time from the start of the layout pass of the control to the end of the event")
+        @Timespan(Timespan.NANOSECONDS)
+        long sinceLayoutStart;
+
+        /**
+         * Ends the event in the layout pass of the current pulse and commits it.
+         *
+         * @param layoutStart {@link System#nanoTime()} at the start of the layout pass
+         */
+        void commitInPulse(int nodesTouched, long layoutStart) {
+            end();
+            if (shouldCommit()) {
+                this.nodesTouched = nodesTouched;
+                sinceLayoutStart = System.nanoTime() - layoutStart;
+                commit();
+            }
+        }
+    }
+
+    @Name("cantonselector.Hover")
+    @Label("Region Hovered")
+    @Description("The mouse entered a region, lasts until the pulse showing the hover outline")
+    static final class HoverEvent extends InteractionEvent {
+    }
+
+    @Name("cantonselector.Select")
+    @Label("Region Selected")
+    @Description("A click changed the selection, lasts until the pulse starting the new canton fills")
+    static final class SelectEvent extends InteractionEvent {
+        @Label("Cantons")
+        @Description("Number of cantons selected")
+        int cantons;
+    }
+
+    @Name("cantonselector.Recolor")
+    @Label("Cantons Recolored")
+    @Description("The fills of the cantons changed since the last pulse were brought up to date")
+    static final class RecolorEvent extends InteractionEvent {
+        @Label("Cantons")
+        @Description("Number of cantons recolored")
+        int cantons;
+    }
+}
@@ -0,0 +1,365 @@
+package cantonselector;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import static cantonselector.SkiRegion.Canton;
+
+/**
+ * Keeps the static base map, all cantons in the base color, as image tiles of {@link #TILE_SIZE} pixels.
+ * Tiles are rendered with Java2D on a background thread for zoom levels that double the scale each,
+ * a canvas showing the map at any scale draws the tiles of the next larger level scaled down.
+ * <p>
+ * The tiles are kept in memory up to a number of bytes, the least recently used ones are dropped first.
+ * Tiles in view of a canvas are never dropped, the cache rather grows beyond its size while they do not fit.
+ * With a spill directory the dropped tiles are written there and read back instead of rendered again,
+ * the directory is never cleaned up. One cache can be shared by any number of controls,
+ * it is only used on the FX Application Thread.
+ */
+public final class MapTileCache {
+    /**
+     * Width and height of a tile in pixels.
+     */
+    public static final int TILE_SIZE = 256;
+
+    // a tile overlaps its right and bottom neighbours by a pixel, so no seams show when tiles are scaled
+    static final int TILE_PIXELS = TILE_SIZE + 1;
+    private static final long TILE_BYTES = (long) TILE_PIXELS * TILE_PIXELS * 4;
+
+    /**
+     * Tile without any canton on it, nothing needs to be drawn.
+     */
+    static final Image EMPTY = new WritableImage(1, 1);
+
+    // renders and spills the tiles
+    private static final System.Logger LOGGER = System.getLogger(MapTileCache.class.getName());
+    private static final Executor WORKER = Executors.newCachedThreadPool(DaemonThreads.named("map-tile-worker"));
+
+    private static MapTileCache shared;
+
+    /**
+     * Told when a requested tile is in memory.
+     */
+    interface TileListener {
+        void tileReady(int level, int column, int row);
+
+        /**
+         * The tile could not be rendered, it may be requested again.
+         */
+        default void tileFailed(int level, int column, int row) {
+        }
+    }
+
+    private final int maxTiles;
+    private final Path spillDirectory;
+    // in access order, the eldest is dropped first
+    private final LinkedHashMap<TileKey, Image> tiles = new LinkedHashMap<>(64, 0.75f, true);
+    // tiles being rendered or read, so they are requested once, with everyone waiting for them
+    private final Map<TileKey, List<TileListener>> pending = new HashMap<>();
+    // the tiles in view of every canvas drawing from the cache, dropped with the canvas
+    private final Map<Object, VisibleTiles> visible = new WeakHashMap<>();
+    // reused for lookups, so drawing the cached tiles does not allocate
+    private final TileKey probe = new TileKey();
+
+    /**
+     * @param maxBytes       memory the tiles may take, at least one tile is kept
+     * @param spillDirectory directory the tiles dropped from memory are written to, null to drop them
+     */
+    public MapTileCache(long maxBytes, Path spillDirectory) {
+        maxTiles = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxBytes / TILE_BYTES));
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * @return the cache used by all controls unless they are given another one, 32 MB in memory
+     */
+    public static MapTileCache shared() {
+        if (shared == null) {
+            shared = new MapTileCache(32L << 20, null);
+        }
+        return shared;
+    }
+
+    /**
+     * @return the zoom level whose tiles are drawn at the scale, scale 1 is level 0
+     */
+    static int levelOf(double scale) {
+        return (int) Math.ceil(Math.log(scale) / Math.log(2) - 1e-9);
+    }
+
+    /**
+     * @return the size of a tile of the level, in map units
+     */
+    static double tileSize(int level) {
+        return TILE_SIZE / Math.scalb(1.0, level);
+    }
+
+    /**
+     * @return the tile if it is in memory, {@link #EMPTY} if nothing is on it, null if it is not in memory
+     */
+    Image cached(Color baseColor, int level, int column, int row) {
+        probe.set(baseColor, level, column, row);
+        return tiles.get(probe);
+    }
+
+    /**
+     * Reads or renders a tile that is not in memory in the background, unless it is requested already.
+     *
+     * @param listener told on the FX Application Thread once the tile is in memory or failed, once however often it asks
+     */
+    void request(CantonGeometry geometry, Color baseColor, int level, int column, int row, TileListener listener) {
+        TileKey key = new TileKey();
+        key.set(baseColor, level, column, row);
+        List<TileListener> waiting = pending.get(key);
+        if (waiting != null) {
+            if (!waiting.contains(listener)) {
+                waiting.add(listener);
+            }
+            return;
+        }
+        waiting = new ArrayList<>(2);
+        waiting.add(listener);
+        pending.put(key, waiting);
+        Path spilled = spillDirectory == null ? null : spillDirectory.resolve(key.fileName());
+        WORKER.execute(() -> {
+            Image loaded = null;
+            try {
+                loaded = load(geometry, key, spilled);
+            } catch (RuntimeException e) {
+                LOGGER.log(System.Logger.Level.WARNING, "tile " + key.fileName() + " not rendered", e);
+            } finally {
+                // whatever went wrong, the tile is no longer pending, so it can be requested again
+                Image tile = loaded;
+                Platform.runLater(() -> finish(key, tile));
+            }
+        });
+    }
+
+    private static Image load(CantonGeometry geometry, TileKey key, Path spilled) {
+        if (spilled != null && Files.exists(spilled)) {
+            try {
+                return read(spilled);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(System.Logger.Level.WARNING, "tile " + key.fileName() + " not loaded, rendering it again", e);
+            }
+        }
+        return render(geometry, key);
+    }
+
+    // null if the tile could not be rendered
+    private void finish(TileKey key, Image tile) {
+        if (tile != null) {
+            put(key, tile);
+        }
+        for (TileListener waiting : pending.remove(key)) {
+            if (tile != null) {
+                waiting.tileReady(key.level, key.column, key.row);
+            } else {
+                waiting.tileFailed(key.level, key.column, key.row);
+            }
+        }
+    }
+
+    /**
+     * Keeps the tiles of the range in memory while they are in view of the canvas, replacing its previous range.
+     *
+     * @param canvas    whatever draws the tiles, its range is forgotten once it is garbage collected
+     * @param baseColor null when the canvas draws no tiles
+     */
+    void setVisible(Object canvas, Color baseColor, int level, int firstColumn, int lastColumn, int firstRow, int lastRow) {
+        if (baseColor == null) {
+            visible.remove(canvas);
+            return;
+        }
+        VisibleTiles range = visible.computeIfAbsent(canvas, c -> new VisibleTiles());
+        range.key.set(baseColor, level, 0, 0);
+        range.firstColumn = firstColumn;
+        range.lastColumn = lastColumn;
+        range.firstRow = firstRow;
+        range.lastRow = lastRow;
+    }
+
+    /**
+     * Drops all tiles from memory, the spilled ones stay.
+     */
+    public void clear() {
+        tiles.clear();
+    }
+
+    private void put(TileKey key, Image tile) {
+        tiles.put(key, tile);
+        if (tiles.size() <= maxTiles) {
+            return;
+        }
+        // the least recently used tiles out of view are dropped, the tiles in view are kept even if they do not fit
+        for (Iterator<Map.Entry<TileKey, Image>> eldest = tiles.entrySet().iterator(); tiles.size() > maxTiles && eldest.hasNext(); ) {
+            Map.Entry<TileKey, Image> dropped = eldest.next();
+            if (!isVisible(dropped.getKey())) {
+                eldest.remove();
+                spill(dropped.getKey(), dropped.getValue());
+            }
+        }
+    }
+
+    private void spill(TileKey key, Image tile) {
+        if (spillDirectory != null && tile != EMPTY) {
+            // the pixels are copied here, the file is written in the background
+            int[] pixels = new int[TILE_PIXELS * TILE_PIXELS];
+            tile.getPixelReader().getPixels(0, 0, TILE_PIXELS, TILE_PIXELS, PixelFormat.getIntArgbPreInstance(), pixels, 0, TILE_PIXELS);
+            Path file = spillDirectory.resolve(key.fileName());
+            WORKER.execute(() -> write(file, pixels));
+        }
+    }
+
+    private boolean isVisible(TileKey key) {
+        for (VisibleTiles range : visible.values()) {
+            if (range.contains(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // draws the cantons overlapping the tile, the tile shows the map at the scale of its level
+    private static Image render(CantonGeometry geometry, TileKey key) {
+        double scale = Math.scalb(1.0, key.level);
+        double size = tileSize(key.level);
+        double minX = key.column * size;
+        double minY = key.row * size;
+        double maxX = minX + size * TILE_PIXELS / TILE_SIZE;
+        double maxY = minY + size * TILE_PIXELS / TILE_SIZE;
+        int lod = CantonGeometry.levelOfDetail(scale);
+
+        BufferedImage image = null;
+        Graphics2D g = null;
+        for (Canton canton : Canton.values()) {
+            PathGeometry outline = geometry.outline(canton);
+            if (outline.getMaxX() < minX || outline.getMinX() > maxX || outline.getMaxY() < minY || outline.getMinY() > maxY) {
+                continue;
+            }
+            if (g == null) {
+                image = new BufferedImage(TILE_PIXELS, TILE_PIXELS, BufferedImage.TYPE_INT_ARGB_PRE);
+                g = image.createGraphics();
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+                g.setTransform(new AffineTransform(scale, 0, 0, scale, -minX * scale, -minY * scale));
+                g.setColor(new java.awt.Color(key.argb, true));
+            }
+            g.fill(geometry.outline(canton, lod).toShape());
+        }
+        if (g == null) {
+            return EMPTY;
+        }
+        g.dispose();
+        return toImage(((DataBufferInt) image.getRaster().getDataBuffer()).getData());
+    }
+
+    private static Image toImage(int[] pixels) {
+        WritableImage tile = new WritableImage(TILE_PIXELS, TILE_PIXELS);
+        tile.getPixelWriter().setPixels(0, 0, TILE_PIXELS, TILE_PIXELS, PixelFormat.getIntArgbPreInstance(), pixels, 0, TILE_PIXELS);
+        return tile;
+    }
+
+    private static Image read(Path file) throws IOException {
+        byte[] bytes = new byte[TILE_PIXELS * TILE_PIXELS * 4];
+        try (InputStream in = new InflaterInputStream(Files.newInputStream(file))) {
+            new DataInputStream(in).readFully(bytes);
+        }
+        int[] pixels = new int[TILE_PIXELS * TILE_PIXELS];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(pixels);
+        return toImage(pixels);
+    }
+
+    private static void write(Path file, int[] pixels) {
+        ByteBuffer bytes = ByteBuffer.allocate(pixels.length * 4);
+        bytes.asIntBuffer().put(pixels);
+        try {
+            Files.createDirectories(file.getParent());
+            // written next to it and moved, so a reader never sees half a tile
+            Path written = Files.createTempFile(file.getParent(), "tile", ".tmp");
+            try (OutputStream out = new DeflaterOutputStream(Files.newOutputStream(written), new Deflater(Deflater.BEST_SPEED))) {
+                new DataOutputStream(out).write(bytes.array());
+            }
+            Files.move(written, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "tile not spilled to " + file, e);
+        }
+    }
+
+    // the tiles a canvas shows, the column and row of the key are unused
+    private static final class VisibleTiles {
+        private final TileKey key = new TileKey();
+        private int firstColumn;
+        private int lastColumn;
+        private int firstRow;
+        private int lastRow;
+
+        boolean contains(TileKey tile) {
+            return tile.argb == key.argb && tile.level == key.level && tile.column >= firstColumn && tile.column <= lastColumn
+                    && tile.row >= firstRow && tile.row <= lastRow;
+        }
+    }
+
+    private static final class TileKey {
+        private int argb;
+        private int level;
+        private int column;
+        private int row;
+
+        void set(Color color, int level, int column, int row) {
+            argb = (int) Math.round(color.getOpacity() * 255) << 24 | (int) Math.round(color.getRed() * 255) << 16
+                    | (int) Math.round(color.getGreen() * 255) << 8 | (int) Math.round(color.getBlue() * 255);
+            this.level = level;
+            this.column = column;
+            this.row = row;
+        }
+
+        String fileName() {
+            return String.format("%08x_%d_%d_%d.tile", argb, level, column, row);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof TileKey)) {
+                return false;
+            }
+            TileKey other = (TileKey) o;
+            return argb == other.argb && level == other.level && column == other.column && row == other.row;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((argb * 31 + level) * 31 + column) * 31 + row;
+        }
+    }
+}
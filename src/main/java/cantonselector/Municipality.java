@@ -0,0 +1,50 @@
+package cantonselector;
+
+import java.util.List;
+
+import static cantonselector.SkiRegion.Canton;
+
+/**
+ * A municipality with its outline, in the same coordinates as the canton map.
+ */
+public final class Municipality {
+    private final String id;
+    private final String name;
+    private final Canton canton;
+    private final PathGeometry outline;
+
+    Municipality(String id, String name, Canton canton, PathGeometry outline) {
+        this.id = id;
+        this.name = name;
+        this.canton = canton;
+        this.outline = outline;
+    }
+
+    /**
+     * Reads the municipalities of the canton from the classpath on the calling thread, see {@link MunicipalityLayer}.
+     *
+     * @return an empty list if there are none for the canton, as none are bundled
+     */
+    public static List<Municipality> of(Canton canton) {
+        return List.of(MunicipalityLayer.load(canton));
+    }
+
+    /**
+     * @return the id of the municipality, its BFS number
+     */
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Canton getCanton() {
+        return canton;
+    }
+
+    public PathGeometry getOutline() {
+        return outline;
+    }
+}
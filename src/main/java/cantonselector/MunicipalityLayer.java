@@ -0,0 +1,248 @@
+package cantonselector;
+
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Affine;
+import javafx.scene.transform.Scale;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static cantonselector.SkiRegion.Canton;
+
+/**
+ * Shows the municipalities of one canton on top of the canton map.
+ * The municipalities of a canton are loaded on a background thread when the canton is shown
+ * and dropped again as soon as another canton is shown. They are all drawn into one canvas
+ * covering the part of the canton in view, so even the largest cantons cost a single node.
+ * <p>
+ * The outlines are read from {@code /images/municipalities/<canton short name>.svg}, one path per
+ * municipality with its BFS number as {@code id} and its name as {@code data-name}, in the coordinates
+ * of the canton map. A canton without such a resource simply shows no municipalities, and none are bundled:
+ * the layer stays empty until the boundaries, e.g. of swisstopo, are put on the classpath.
+ */
+final class MunicipalityLayer {
+    static final String RESOURCE_PATTERN = "/images/municipalities/%s.svg";
+
+    private static final System.Logger LOGGER = System.getLogger(MunicipalityLayer.class.getName());
+    private static final Municipality[] NONE = new Municipality[0];
+    private static final Color BORDER_COLOR = Color.rgb(255, 255, 255, 0.7);
+    private static final double BORDER_WIDTH = 0.6;
+
+    private final CantonGeometry geometry;
+    private final Executor loader;
+    private final Canvas canvas = new Canvas();
+    private final Scale pixelScale = new Scale(1, 1, 0, 0);
+    private final Affine identity = new Affine();
+
+    private Canton canton;
+    // counts the requests, so a load finishing after another canton was requested is dropped
+    private int generation;
+    private Municipality[] municipalities = NONE;
+    private ShapeIndex index = new ShapeIndex();
+    private int hovered = -1;
+    private Color hoverColor;
+    private double resolution = 1;
+    // the part of the map in view and the part of it the canvas covers, in map units
+    private double viewMinX = Double.NEGATIVE_INFINITY;
+    private double viewMinY = Double.NEGATIVE_INFINITY;
+    private double viewMaxX = Double.POSITIVE_INFINITY;
+    private double viewMaxY = Double.POSITIVE_INFINITY;
+    private double originX;
+    private double originY;
+
+    MunicipalityLayer(CantonGeometry geometry, Executor loader) {
+        this.geometry = geometry;
+        this.loader = loader;
+        canvas.setMouseTransparent(true);
+        canvas.getTransforms().add(pixelScale);
+    }
+
+    Canvas getCanvas() {
+        return canvas;
+    }
+
+    Canton getCanton() {
+        return canton;
+    }
+
+    /**
+     * Shows the municipalities of the canton, loading them in the background. Null hides the layer.
+     */
+    void show(Canton canton) {
+        if (canton == this.canton) {
+            return;
+        }
+        this.canton = canton;
+        int requested = ++generation;
+        municipalities = NONE;
+        index = new ShapeIndex();
+        hovered = -1;
+        canvas.setWidth(0);
+        canvas.setHeight(0);
+        if (canton == null) {
+            return;
+        }
+        // parsing and indexing happen in the background, the FX thread only swaps the results in
+        CompletableFuture.supplyAsync(() -> new Loaded(load(canton)), loader).whenComplete((loaded, error) -> {
+            if (error != null) {
+                LOGGER.log(System.Logger.Level.WARNING, "municipalities of " + canton.getShortName() + " not loaded", error);
+                return;
+            }
+            Platform.runLater(() -> {
+                if (requested == generation) {
+                    municipalities = loaded.municipalities;
+                    index = loaded.index;
+                    layoutCanvas();
+                }
+            });
+        });
+    }
+
+    /**
+     * @return the municipality at the given map coordinates, or null if there is none shown there
+     */
+    Municipality municipalityAt(double x, double y) {
+        int found = index.find(x, y);
+        return found < 0 ? null : municipalities[found];
+    }
+
+    void setHovered(Municipality municipality) {
+        int previous = hovered;
+        hovered = -1;
+        for (int i = 0; i < municipalities.length; i++) {
+            if (municipalities[i] == municipality) {
+                hovered = i;
+            }
+        }
+        if (previous != hovered) {
+            repaint(previous);
+            repaint(hovered);
+        }
+    }
+
+    void setHoverColor(Color hoverColor) {
+        this.hoverColor = hoverColor;
+        repaint(hovered);
+    }
+
+    /**
+     * @param resolution canvas pixels per map unit, usually the scale the map is shown with
+     * @param minX       the part of the map in view, in map units
+     */
+    void setView(double resolution, double minX, double minY, double maxX, double maxY) {
+        if (resolution != this.resolution || minX != viewMinX || minY != viewMinY || maxX != viewMaxX || maxY != viewMaxY) {
+            this.resolution = resolution;
+            viewMinX = minX;
+            viewMinY = minY;
+            viewMaxX = maxX;
+            viewMaxY = maxY;
+            layoutCanvas();
+        }
+    }
+
+    private void layoutCanvas() {
+        if (canton == null) {
+            return;
+        }
+        PathGeometry outline = geometry.outline(canton);
+        originX = Math.max(outline.getMinX(), viewMinX);
+        originY = Math.max(outline.getMinY(), viewMinY);
+        double maxX = Math.min(outline.getMaxX(), viewMaxX);
+        double maxY = Math.min(outline.getMaxY(), viewMaxY);
+        canvas.relocate(originX, originY);
+        canvas.setWidth(Math.max(0, Math.ceil((maxX - originX) * resolution)));
+        canvas.setHeight(Math.max(0, Math.ceil((maxY - originY) * resolution)));
+        pixelScale.setX(1 / resolution);
+        pixelScale.setY(1 / resolution);
+        repaint(originX, originY, maxX, maxY);
+    }
+
+    private void repaint(int municipality) {
+        if (municipality >= 0) {
+            PathGeometry outline = municipalities[municipality].getOutline();
+            repaint(outline.getMinX(), outline.getMinY(), outline.getMaxX(), outline.getMaxY());
+        }
+    }
+
+    // redraws everything overlapping the area, given in map coordinates
+    private void repaint(double minX, double minY, double maxX, double maxY) {
+        if (canton == null || canvas.getWidth() == 0 || canvas.getHeight() == 0) {
+            return;
+        }
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double x = Math.floor((minX - originX) * resolution) - 1;
+        double y = Math.floor((minY - originY) * resolution) - 1;
+        double w = Math.ceil((maxX - originX) * resolution) + 1 - x;
+        double h = Math.ceil((maxY - originY) * resolution) + 1 - y;
+
+        gc.save();
+        gc.setTransform(identity);
+        gc.beginPath();
+        gc.rect(x, y, w, h);
+        gc.clip();
+        gc.clearRect(x, y, w, h);
+        gc.setTransform(resolution, 0, 0, resolution, -originX * resolution, -originY * resolution);
+        gc.setStroke(BORDER_COLOR);
+        gc.setLineWidth(BORDER_WIDTH);
+        for (int i = 0; i < municipalities.length; i++) {
+            PathGeometry outline = municipalities[i].getOutline();
+            if (outline.getMaxX() < minX || outline.getMinX() > maxX || outline.getMaxY() < minY || outline.getMinY() > maxY) {
+                continue;
+            }
+            CantonCanvasRenderer.trace(gc, outline);
+            if (i == hovered && hoverColor != null) {
+                gc.setFill(hoverColor);
+                gc.fill();
+            }
+            gc.stroke();
+        }
+        gc.restore();
+    }
+
+    private static final class Loaded {
+        private final Municipality[] municipalities;
+        private final ShapeIndex index;
+
+        private Loaded(Municipality[] municipalities) {
+            this.municipalities = municipalities;
+            PathGeometry[] outlines = new PathGeometry[municipalities.length];
+            for (int i = 0; i < municipalities.length; i++) {
+                outlines[i] = municipalities[i].getOutline();
+            }
+            index = new ShapeIndex(outlines);
+        }
+    }
+
+    /**
+     * Reads the municipalities of a canton, an empty array if there is no resource for the canton.
+     */
+    static Municipality[] load(Canton canton) {
+        String resource = String.format(RESOURCE_PATTERN, canton.getShortName());
+        List<Municipality> result = new ArrayList<>();
+        try (InputStream in = MunicipalityLayer.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                return NONE;
+            }
+            CantonSvgLoader.readPaths(in, path -> {
+                String id = path.getAttributeValue(null, "id");
+                String d = path.getAttributeValue(null, "d");
+                if (id != null && d != null) {
+                    String name = path.getAttributeValue(null, "data-name");
+                    result.add(new Municipality(id, name != null ? name : id, canton, SvgPathParser.parse(d)));
+                }
+                return true;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not read " + resource, e);
+        }
+        return result.toArray(NONE);
+    }
+}
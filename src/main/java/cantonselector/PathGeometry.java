@@ -0,0 +1,287 @@
+package cantonselector;
+
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.util.Arrays;
+
+/**
+ * Immutable outline of a shape on the map, stored as command bytes and absolute float coordinates.
+ * Only {@link #MOVE_TO}, {@link #LINE_TO}, {@link #CURVE_TO} (cubic) and {@link #CLOSE} are used,
+ * every other svg path command is normalized to these when parsing.
+ */
+public final class PathGeometry {
+    public static final byte MOVE_TO = 0;
+    public static final byte LINE_TO = 1;
+    public static final byte CURVE_TO = 2;
+    public static final byte CLOSE = 3;
+
+    private final byte[] commands;
+    private final float[] coords;
+    private final float minX;
+    private final float minY;
+    private final float maxX;
+    private final float maxY;
+
+    // computed on first use; a race only means the same string is built twice
+    private String svgContent;
+
+    PathGeometry(byte[] commands, float[] coords) {
+        this.commands = commands;
+        this.coords = coords;
+
+        float x0 = Float.POSITIVE_INFINITY;
+        float y0 = Float.POSITIVE_INFINITY;
+        float x1 = Float.NEGATIVE_INFINITY;
+        float y1 = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < coords.length; i += 2) {
+            x0 = Math.min(x0, coords[i]);
+            y0 = Math.min(y0, coords[i + 1]);
+            x1 = Math.max(x1, coords[i]);
+            y1 = Math.max(y1, coords[i + 1]);
+        }
+        minX = x0;
+        minY = y0;
+        maxX = x1;
+        maxY = y1;
+    }
+
+    /**
+     * Number of coordinate values (not points) a command consumes.
+     */
+    public static int coordCount(byte command) {
+        switch (command) {
+            case MOVE_TO:
+            case LINE_TO:
+                return 2;
+            case CURVE_TO:
+                return 6;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @return svg path data with absolute commands, usable as content of an {@code SVGPath}
+     */
+    public String toSvgContent() {
+        String content = svgContent;
+        if (content == null) {
+            StringBuilder sb = new StringBuilder(coords.length * 8);
+            int c = 0;
+            for (byte command : commands) {
+                switch (command) {
+                    case MOVE_TO:
+                        sb.append('M');
+                        break;
+                    case LINE_TO:
+                        sb.append('L');
+                        break;
+                    case CURVE_TO:
+                        sb.append('C');
+                        break;
+                    default:
+                        sb.append('Z');
+                }
+                for (int end = c + coordCount(command); c < end; c++) {
+                    appendCoord(sb, coords[c]);
+                }
+            }
+            content = sb.toString();
+            svgContent = content;
+        }
+        return content;
+    }
+
+    /**
+     * Simplifies the outline with the Douglas-Peucker algorithm.
+     * Curves are reduced to their end and middle points, so the result consists of lines only.
+     * Subpaths smaller than the tolerance are dropped.
+     *
+     * @param tolerance the maximum distance of the simplified from the original outline
+     */
+    public PathGeometry simplify(double tolerance) {
+        SimplifiedPathBuilder builder = new SimplifiedPathBuilder(tolerance);
+        int c = 0;
+        float x = 0;
+        float y = 0;
+        float startX = 0;
+        float startY = 0;
+        for (byte command : commands) {
+            if (command != MOVE_TO && command != CLOSE && builder.isEmpty()) {
+                // drawing on after a close starts at the start of the closed subpath
+                builder.add(x, y);
+            }
+            switch (command) {
+                case MOVE_TO:
+                    builder.endSubpath(false);
+                    x = coords[c];
+                    y = coords[c + 1];
+                    startX = x;
+                    startY = y;
+                    builder.add(x, y);
+                    break;
+                case LINE_TO:
+                    x = coords[c];
+                    y = coords[c + 1];
+                    builder.add(x, y);
+                    break;
+                case CURVE_TO:
+                    // point of the curve at t = 0.5
+                    builder.add(0.125f * (x + 3 * coords[c] + 3 * coords[c + 2] + coords[c + 4]),
+                            0.125f * (y + 3 * coords[c + 1] + 3 * coords[c + 3] + coords[c + 5]));
+                    x = coords[c + 4];
+                    y = coords[c + 5];
+                    builder.add(x, y);
+                    break;
+                default:
+                    builder.endSubpath(true);
+                    x = startX;
+                    y = startY;
+            }
+            c += coordCount(command);
+        }
+        builder.endSubpath(false);
+        return builder.build();
+    }
+
+    /**
+     * @return the outline as java2d shape, filled with the non-zero rule like the svg
+     */
+    Path2D.Float toShape() {
+        Path2D.Float path = new Path2D.Float(Path2D.WIND_NON_ZERO, commands.length);
+        int c = 0;
+        for (byte command : commands) {
+            switch (command) {
+                case MOVE_TO:
+                    path.moveTo(coords[c], coords[c + 1]);
+                    break;
+                case LINE_TO:
+                    path.lineTo(coords[c], coords[c + 1]);
+                    break;
+                case CURVE_TO:
+                    path.curveTo(coords[c], coords[c + 1], coords[c + 2], coords[c + 3], coords[c + 4], coords[c + 5]);
+                    break;
+                default:
+                    path.closePath();
+            }
+            c += coordCount(command);
+        }
+        return path;
+    }
+
+    /**
+     * Converts a java2d shape, quadratic curves become cubic ones.
+     */
+    static PathGeometry fromShape(Shape shape) {
+        byte[] commands = new byte[64];
+        float[] coords = new float[256];
+        int commandCount = 0;
+        int coordCount = 0;
+        float[] segment = new float[6];
+        float x = 0;
+        float y = 0;
+        for (PathIterator it = shape.getPathIterator(null); !it.isDone(); it.next()) {
+            int type = it.currentSegment(segment);
+            if (commandCount == commands.length) {
+                commands = Arrays.copyOf(commands, commandCount * 2);
+            }
+            if (coordCount + 6 > coords.length) {
+                coords = Arrays.copyOf(coords, coords.length * 2);
+            }
+            switch (type) {
+                case PathIterator.SEG_MOVETO:
+                case PathIterator.SEG_LINETO:
+                    commands[commandCount++] = type == PathIterator.SEG_MOVETO ? MOVE_TO : LINE_TO;
+                    x = coords[coordCount++] = segment[0];
+                    y = coords[coordCount++] = segment[1];
+                    break;
+                case PathIterator.SEG_QUADTO:
+                    // the control points of the equal cubic lie 2/3 of the way to the quadratic control point
+                    commands[commandCount++] = CURVE_TO;
+                    coords[coordCount++] = x + 2f / 3f * (segment[0] - x);
+                    coords[coordCount++] = y + 2f / 3f * (segment[1] - y);
+                    coords[coordCount++] = segment[2] + 2f / 3f * (segment[0] - segment[2]);
+                    coords[coordCount++] = segment[3] + 2f / 3f * (segment[1] - segment[3]);
+                    x = coords[coordCount++] = segment[2];
+                    y = coords[coordCount++] = segment[3];
+                    break;
+                case PathIterator.SEG_CUBICTO:
+                    commands[commandCount++] = CURVE_TO;
+                    System.arraycopy(segment, 0, coords, coordCount, 6);
+                    coordCount += 6;
+                    x = segment[4];
+                    y = segment[5];
+                    break;
+                default:
+                    commands[commandCount++] = CLOSE;
+            }
+        }
+        return new PathGeometry(Arrays.copyOf(commands, commandCount), Arrays.copyOf(coords, coordCount));
+    }
+
+    // three decimals are what the map is drawn with, anything more is noise
+    private static void appendCoord(StringBuilder sb, float value) {
+        long thousandths = Math.round(value * 1000.0);
+        sb.append(' ');
+        if (thousandths < 0) {
+            sb.append('-');
+            thousandths = -thousandths;
+        }
+        sb.append(thousandths / 1000);
+        long fraction = thousandths % 1000;
+        if (fraction != 0) {
+            sb.append('.');
+            if (fraction < 100) {
+                sb.append('0');
+            }
+            if (fraction < 10) {
+                sb.append('0');
+            }
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+            }
+            sb.append(fraction);
+        }
+    }
+
+    public int getCommandCount() {
+        return commands.length;
+    }
+
+    public byte getCommand(int index) {
+        return commands[index];
+    }
+
+    public int getCoordCount() {
+        return coords.length;
+    }
+
+    public float getCoord(int index) {
+        return coords[index];
+    }
+
+    byte[] commands() {
+        return commands;
+    }
+
+    float[] coords() {
+        return coords;
+    }
+
+    public float getMinX() {
+        return minX;
+    }
+
+    public float getMinY() {
+        return minY;
+    }
+
+    public float getMaxX() {
+        return maxX;
+    }
+
+    public float getMaxY() {
+        return maxY;
+    }
+}
@@ -0,0 +1,121 @@
+package cantonselector;
+
+import java.util.Arrays;
+
+/**
+ * Raster of shape indices: every pixel holds the index of the shape covering its center, or -1.
+ * One pixel is one map unit. Looking up the shape under a point is a single array read.
+ * <p>
+ * Instances are immutable and can be used from any thread.
+ */
+public final class PickBuffer {
+    private static final byte EMPTY = -1;
+
+    private final int originX;
+    private final int originY;
+    private final int width;
+    private final int height;
+    private final byte[] pixels;
+
+    /**
+     * Rasterizes the shapes of the index. Where shapes overlap, the pixel belongs to the one
+     * {@link ShapeIndex#find(double, double)} would return, the one with the lowest index.
+     */
+    PickBuffer(ShapeIndex index) {
+        if (index.size() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("a pick buffer holds at most " + Byte.MAX_VALUE + " shapes");
+        }
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        for (int shape = 0; shape < index.size(); shape++) {
+            float[] bounds = index.bounds(shape);
+            minX = Math.min(minX, bounds[0]);
+            minY = Math.min(minY, bounds[1]);
+            maxX = Math.max(maxX, bounds[2]);
+            maxY = Math.max(maxY, bounds[3]);
+        }
+        if (index.size() == 0) {
+            minX = minY = maxX = maxY = 0;
+        }
+        originX = (int) Math.floor(minX);
+        originY = (int) Math.floor(minY);
+        width = (int) Math.ceil(maxX) - originX + 1;
+        height = (int) Math.ceil(maxY) - originY + 1;
+        pixels = new byte[width * height];
+        Arrays.fill(pixels, EMPTY);
+
+        float[] crossings = new float[64];
+        for (int shape = 0; shape < index.size(); shape++) {
+            float[] edges = index.edges(shape);
+            float[] bounds = index.bounds(shape);
+            int row0 = Math.max(0, (int) Math.floor(bounds[1]) - originY);
+            int row1 = Math.min(height - 1, (int) Math.ceil(bounds[3]) - originY);
+            for (int row = row0; row <= row1; row++) {
+                float y = originY + row + 0.5f;
+                int count = 0;
+                for (int i = 0; i < edges.length; i += 4) {
+                    float y0 = edges[i + 1];
+                    float y1 = edges[i + 3];
+                    if ((y0 > y) != (y1 > y)) {
+                        if (count == crossings.length) {
+                            crossings = Arrays.copyOf(crossings, count * 2);
+                        }
+                        crossings[count++] = edges[i] + (y - y0) * (edges[i + 2] - edges[i]) / (y1 - y0);
+                    }
+                }
+                Arrays.sort(crossings, 0, count);
+                // even-odd: pixels whose center lies between a pair of crossings are inside
+                for (int i = 0; i + 1 < count; i += 2) {
+                    int from = Math.max(0, (int) Math.ceil(crossings[i] - 0.5f) - originX);
+                    int to = Math.min(width - 1, (int) Math.ceil(crossings[i + 1] - 0.5f) - 1 - originX);
+                    for (int column = from; column <= to; column++) {
+                        int pixel = row * width + column;
+                        if (pixels[pixel] == EMPTY) {
+                            pixels[pixel] = (byte) shape;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the map coordinate of the left edge of the first column
+     */
+    int getOriginX() {
+        return originX;
+    }
+
+    int getOriginY() {
+        return originY;
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the index of the shape covering the center of the pixel, or -1 if there is none
+     */
+    int pixel(int column, int row) {
+        return pixels[row * width + column];
+    }
+
+    /**
+     * @return the index of the shape at the given map coordinates, or -1 if there is none
+     */
+    public int shapeAt(double x, double y) {
+        int column = (int) Math.floor(x) - originX;
+        int row = (int) Math.floor(y) - originY;
+        if (column < 0 || row < 0 || column >= width || row >= height) {
+            return -1;
+        }
+        return pixels[row * width + column];
+    }
+}
@@ -0,0 +1,132 @@
+package cantonselector;
+
+import javafx.scene.shape.SVGPath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static cantonselector.SkiRegion.Canton;
+
+/**
+ * The regions of a {@link RegionPartition} with dense int ids, in the order of the partition.
+ * Looking up the region of a canton or the cantons of a region is an array access,
+ * only the lookup by name at the string based API of the controls hashes.
+ * The merged outline of every region is prepared when the catalog is built.
+ * <p>
+ * Instances are immutable, so a catalog built on a background thread can be handed to the FX thread.
+ */
+final class RegionCatalog {
+    static final int NONE = -1;
+
+    private static final Canton[] CANTONS = Canton.values();
+
+    private final RegionPartition partition;
+    private final SkiRegion[] regions;
+    // per region id the union of its cantons, null without geometry
+    private final PathGeometry[] outlines;
+    // per region id the cantons as bit mask, see CantonSelection
+    private final long[] cantonMasks;
+    // per canton ordinal the region id, NONE for cantons not belonging to a region
+    private final int[] regionIds = new int[CANTONS.length];
+    private final Map<String, Integer> idsByName = new HashMap<>();
+
+    /**
+     * Merging the outlines of large regions takes a while the first time, so this is better done in the background.
+     *
+     * @param cantonSvgs the nodes of the cantons by ordinal, may contain nulls
+     * @param geometry   the outlines to merge, may be null
+     */
+    RegionCatalog(RegionPartition partition, SVGPath[] cantonSvgs, CantonGeometry geometry) {
+        this.partition = partition;
+        regions = new SkiRegion[partition.size()];
+        outlines = new PathGeometry[partition.size()];
+        cantonMasks = new long[partition.size()];
+        Arrays.fill(regionIds, NONE);
+        for (int id = 0; id < regions.length; id++) {
+            List<Canton> cantons = List.copyOf(partition.getCantons(id));
+            List<SVGPath> svgs = new ArrayList<>();
+            for (Canton canton : cantons) {
+                regionIds[canton.ordinal()] = id;
+                if (cantonSvgs[canton.ordinal()] != null) {
+                    svgs.add(cantonSvgs[canton.ordinal()]);
+                }
+            }
+            regions[id] = new SkiRegion(partition.getRegionName(id), cantons, svgs);
+            cantonMasks[id] = CantonSelection.mask(cantons);
+            if (geometry != null) {
+                outlines[id] = geometry.outline(cantonMasks[id]);
+            }
+            idsByName.put(regions[id].getRegionName().getName(), id);
+        }
+    }
+
+    RegionPartition getPartition() {
+        return partition;
+    }
+
+    int size() {
+        return regions.length;
+    }
+
+    SkiRegion region(int id) {
+        return regions[id];
+    }
+
+    /**
+     * @return the id of the region the canton belongs to, {@link #NONE} if it belongs to none
+     */
+    int regionOf(Canton canton) {
+        return regionIds[canton.ordinal()];
+    }
+
+    /**
+     * @return the id of the region the canton with the given ordinal belongs to, {@link #NONE} for a negative ordinal
+     */
+    int regionOf(int cantonOrdinal) {
+        return cantonOrdinal < 0 ? NONE : regionIds[cantonOrdinal];
+    }
+
+    /**
+     * @return the cantons of the region as bit mask, no cantons for {@link #NONE}
+     */
+    long cantons(int id) {
+        return id == NONE ? 0 : cantonMasks[id];
+    }
+
+    /**
+     * @return the id of the region with the given name, {@link #NONE} if there is none
+     */
+    int idOf(String name) {
+        Integer id = name == null ? null : idsByName.get(name);
+        return id == null ? NONE : id;
+    }
+
+    /**
+     * @return the union of the cantons of the region, null if there is no geometry
+     */
+    PathGeometry outline(int id) {
+        return outlines[id];
+    }
+
+    /**
+     * @return true if there is a region made of more than one canton
+     */
+    boolean hasMergedRegions() {
+        for (long mask : cantonMasks) {
+            if (Long.bitCount(mask) > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the name of the region, null for {@link #NONE}
+     */
+    String nameOf(int id) {
+        return id == NONE ? null : regions[id].getRegionName().getName();
+    }
+}
@@ -0,0 +1,82 @@
+package cantonselector;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static cantonselector.SkiRegion.Canton;
+import static cantonselector.SkiRegion.RegionName;
+
+/**
+ * Divides the map into regions, each made of one or more cantons.
+ * A {@link RegionSelectorControl} can be switched to another partition at any time.
+ */
+public final class RegionPartition {
+    /**
+     * Every canton is a region of its own.
+     */
+    public static final RegionPartition CANTONS = cantons();
+
+    /**
+     * The six ski regions of {@link RegionName#getRegions()} with their cantons, the other cantons belong to no region.
+     */
+    public static final RegionPartition SKI_REGIONS = skiRegions();
+
+    private final List<RegionName> names;
+    private final List<Collection<Canton>> cantons;
+
+    /**
+     * @param regions the cantons of every region, in the order the regions are to be listed
+     * @throws IllegalArgumentException if a canton belongs to more than one region
+     */
+    public RegionPartition(Map<RegionName, ? extends Collection<Canton>> regions) {
+        List<RegionName> names = new ArrayList<>(regions.size());
+        List<Collection<Canton>> cantons = new ArrayList<>(regions.size());
+        EnumSet<Canton> assigned = EnumSet.noneOf(Canton.class);
+        for (Map.Entry<RegionName, ? extends Collection<Canton>> entry : regions.entrySet()) {
+            EnumSet<Canton> region = EnumSet.noneOf(Canton.class);
+            region.addAll(entry.getValue());
+            for (Canton canton : region) {
+                if (!assigned.add(canton)) {
+                    throw new IllegalArgumentException(canton.getShortName() + " belongs to more than one region");
+                }
+            }
+            names.add(entry.getKey());
+            cantons.add(Collections.unmodifiableSet(region));
+        }
+        this.names = Collections.unmodifiableList(names);
+        this.cantons = Collections.unmodifiableList(cantons);
+    }
+
+    private static RegionPartition cantons() {
+        Map<RegionName, Collection<Canton>> regions = new LinkedHashMap<>();
+        for (Canton canton : Canton.values()) {
+            regions.put(new RegionName(canton.getShortName(), canton.getName()), EnumSet.of(canton));
+        }
+        return new RegionPartition(regions);
+    }
+
+    private static RegionPartition skiRegions() {
+        Map<RegionName, Collection<Canton>> regions = new LinkedHashMap<>();
+        for (RegionName name : RegionName.getRegions()) {
+            regions.put(name, name.getCantons());
+        }
+        return new RegionPartition(regions);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public RegionName getRegionName(int region) {
+        return names.get(region);
+    }
+
+    public Collection<Canton> getCantons(int region) {
+        return cantons.get(region);
+    }
+}
@@ -1,31 +1,30 @@
 package cantonselector;
 
+import javafx.application.Platform;
 import javafx.beans.property.*;
 import javafx.css.*;
 import javafx.geometry.Insets;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.Region;
 import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
 import javafx.scene.shape.SVGPath;
-import javafx.scene.text.Font;
 import javafx.scene.text.Text;
-import org.w3c.dom.Document;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.*;
+
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 import static cantonselector.SkiRegion.Canton;
-import static cantonselector.SkiRegion.RegionName;
 
 /**
  * RegionSelector can be used to select a Region on the swiss map.
  * A Region consists of a number of cantons.
+ * The cantons are either drawn as one node each or all into one canvas, see {@link RenderMode}.
  *
  * @author Anessollah Ima
  */
@@ -37,20 +36,101 @@ public class RegionSelectorControl extends Region {
         return FACTORY.getCssMetaData();
     }
 
-    private static final double ARTBOARD_WIDTH = 1100;
-    private static final double ARTBOARD_HEIGHT = 675;
+    static final double ARTBOARD_WIDTH = 1100;
+    static final double ARTBOARD_HEIGHT = 675;
     private static final double ASPECT_RATIO = ARTBOARD_WIDTH / ARTBOARD_HEIGHT;
     private static final double MINIMUM_WIDTH = 100;
     private static final double MINIMUM_HEIGHT = MINIMUM_WIDTH / ASPECT_RATIO;
     private static final double MAXIMUM_WIDTH = 2000;
-    private final String filepath = getClass().getResource("/images/Suisse_cantons.svg").toExternalForm();
-    //TODO 1) change this to true if you want to use set of cantons called regions
-    private final boolean useRegions = false;
+    private static final double MAXIMUM_ZOOM = 16;
+    // from this zoom on the municipalities of the canton in the middle of the view are shown
+    private static final double MUNICIPALITY_ZOOM = 4;
+    // zoom factor per pixel the mouse wheel scrolls
+    private static final double WHEEL_ZOOM = 1.005;
+    private static final long FADE_MILLIS = 200;
+    private static final long HOVER_FADE_MILLIS = 120;
+    // the hovered region grows by this factor around its center, so it stands out from its neighbours
+    private static final double HOVER_SCALE = 1.03;
+
+    private static final System.Logger LOGGER = System.getLogger(RegionSelectorControl.class.getName());
+    // loads the map of asynchronously constructed selectors
+    private static final Executor LOADER = Executors.newCachedThreadPool(DaemonThreads.named("region-selector-loader"));
+
+    private static final Canton[] CANTONS = Canton.values();
+
+    /**
+     * How the cantons are drawn.
+     */
+    public enum RenderMode {
+        /**
+         * One {@link SVGPath} per canton.
+         */
+        NODES,
+        /**
+         * All cantons in a single canvas, the canton under the mouse is read from a shared pick buffer.
+         * Meant for screens showing many maps at once.
+         */
+        CANVAS
+    }
+
+    private final RenderMode renderMode;
+    private final boolean loadAsync;
 
     // Parts of which the region selector consists of
     private Text display;
-    private Map<String, SVGPath> cantonSvgs;
-    private Map<String, SkiRegion> regions;
+    private Text placeholder;
+    // by canton ordinal, empty when the cantons are drawn into a canvas
+    private SVGPath[] cantonSvgs;
+    private RegionCatalog catalog;
+    // counts partition switches, so a catalog finished after the next switch is dropped
+    private int catalogGeneration;
+    private int hoverRegionId = RegionCatalog.NONE;
+    // the region whose outline the hover outline shows, so it is only replaced for another region
+    private int outlinedRegionId = RegionCatalog.NONE;
+    // the hovered region and the borders between regions, one shape each no matter how many cantons they span
+    private SVGPath hoverOutline;
+    private SVGPath regionBorders;
+    private CantonGeometry geometry;
+    private int levelOfDetail;
+    private CantonCanvasRenderer canvasRenderer;
+    private MunicipalityLayer municipalityLayer;
+    private ResortLayer resortLayer;
+
+    // the map coordinates shown in the middle of the control, the scale the map is shown with and the mouse
+    // position of the last drag event
+    private double centerX = ARTBOARD_WIDTH * 0.5;
+    private double centerY = ARTBOARD_HEIGHT * 0.5;
+    private double scale = 1;
+    private double dragX;
+    private double dragY;
+    // cantons overlapping the view, the others are hidden, one bit per ordinal
+    private long visibleCantons = CantonSelection.ALL;
+    // the canton in the middle of the view once zoomed in far enough
+    private Canton zoomedCanton;
+    private final Rectangle clip = new Rectangle();
+
+    // fill of every canton while it is neither selected nor hovered, null for the base color
+    private final Color[] cantonColors = new Color[CANTONS.length];
+    // value of every canton shown with the color ramp, NaN for none, and the ramp bucket it falls into
+    private final double[] cantonValues = new double[CANTONS.length];
+    private final int[] cantonBuckets = new int[CANTONS.length];
+    // cantons whose fill is brought up to date on the next pulse, one bit per ordinal
+    private long staleCantons;
+    // set when the css pass resets the canton fills to the new base color
+    private boolean fillsReset;
+    // fades the fill of every canton to its new color, by ordinal
+    private CantonFade[] fades;
+    // the fills the fades got to, painted into the canvas once per frame
+    private final Color[] canvasFills = new Color[CANTONS.length];
+    private long staleCanvasFills;
+
+    private final CantonSelection selection = new CantonSelection();
+    // set while the string properties follow the selection or the hovered region, so they are not fed back
+    private boolean syncingSelection;
+    private boolean syncingHover;
+    // flight recorder events of mouse events whose fills change on the next pulse, null while not recorded
+    private InteractionEvents.HoverEvent pendingHover;
+    private InteractionEvents.SelectEvent pendingSelect;
 
     //all needed properties for the region selector
     private final StringProperty selectedRegion = new SimpleStringProperty();
@@ -58,6 +138,32 @@ public class RegionSelectorControl extends Region {
     private final BooleanProperty displayVisibility = new SimpleBooleanProperty();
     private final DoubleProperty xMouse = new SimpleDoubleProperty();
     private final DoubleProperty yMouse = new SimpleDoubleProperty();
+    private final ReadOnlyBooleanWrapper ready = new ReadOnlyBooleanWrapper(this, "ready");
+    private final ReadOnlyObjectWrapper<Throwable> loadError = new ReadOnlyObjectWrapper<>(this, "loadError");
+    private final ObjectProperty<RegionPartition> partition = new SimpleObjectProperty<>(this, "partition", RegionPartition.CANTONS);
+    private final ObjectProperty<ColorRamp> colorRamp = new SimpleObjectProperty<>(this, "colorRamp");
+    private final ObjectProperty<CantonDataChannel> dataChannel = new SimpleObjectProperty<>(this, "dataChannel");
+    private final DoubleProperty zoom = new SimpleDoubleProperty(this, "zoom", 1);
+    private final ObjectProperty<MapTileCache> tileCache = new SimpleObjectProperty<>(this, "tileCache", MapTileCache.shared());
+    private final ReadOnlyObjectWrapper<Resort> hoverResort = new ReadOnlyObjectWrapper<>(this, "hoverResort");
+    private final ReadOnlyDoubleWrapper selectedValue = new ReadOnlyDoubleWrapper(this, "selectedValue", Double.NaN);
+    private final TweenEngine.DoubleTween hoverFade = new TweenEngine.DoubleTween(HOVER_FADE_MILLIS, 0) {
+        @Override
+        void show(double value) {
+            hoverOutline.setOpacity(value);
+        }
+    };
+    private final TweenEngine.DoubleTween hoverScale = new TweenEngine.DoubleTween(HOVER_FADE_MILLIS, 1) {
+        @Override
+        void show(double value) {
+            hoverOutline.setScaleX(value);
+            hoverOutline.setScaleY(value);
+        }
+    };
+    // takes the values out of the data channel, kept so draining does not allocate
+    private final CantonDataChannel.Sink valueSink = this::setCantonValue;
+    private final BooleanProperty municipalitiesVisible = new SimpleBooleanProperty();
+    private final ReadOnlyObjectWrapper<Municipality> hoverMunicipality = new ReadOnlyObjectWrapper<>(this, "hoverMunicipality");
 
     //the three stylable properties for the base color, the selected color and the hover color
     private static final CssMetaData<RegionSelectorControl, Color> BASE_COLOR_META_DATA = FACTORY.createColorCssMetaData("-base-color", s -> s.baseColor);
@@ -67,8 +173,10 @@ public class RegionSelectorControl extends Region {
     private final StyleableObjectProperty<Color> baseColor = new SimpleStyleableObjectProperty<Color>(BASE_COLOR_META_DATA, this, "baseColor") {
         @Override
         protected void invalidated() {
+            // the css pass of the next pulse picks the new color up, the fills follow in the layout pass
             setStyle(BASE_COLOR_META_DATA.getProperty() + ": " + colorToCss(getBaseColor()));
-            applyCss();
+            fillsReset = true;
+            invalidateCantonColors(CantonSelection.ALL);
         }
     };
     private final StyleableObjectProperty<Color> hoverColor = new SimpleStyleableObjectProperty<Color>(HOVER_COLOR_META_DATA, this, "hoverColor");
@@ -78,33 +186,85 @@ public class RegionSelectorControl extends Region {
     private Pane drawingPane;
 
     public RegionSelectorControl() {
+        this(false);
+    }
+
+    /**
+     * @param loadAsync if true, the constructor returns right away showing a placeholder,
+     *                  the map is loaded on a background thread and attached to the control once it is ready
+     * @see #readyProperty()
+     */
+    public RegionSelectorControl(boolean loadAsync) {
+        this(RenderMode.NODES, loadAsync);
+    }
+
+    /**
+     * @param renderMode how the cantons are drawn
+     * @param loadAsync  if true, the map is loaded on a background thread, see {@link #RegionSelectorControl(boolean)}
+     */
+    public RegionSelectorControl(RenderMode renderMode, boolean loadAsync) {
+        this.renderMode = renderMode;
+        this.loadAsync = loadAsync;
+        StartupProbe probe = StartupProbe.start(this);
         initializeSelf();
+        probe.mark("initializeSelf");
         initializeParts();
+        probe.mark("initializeParts");
         initializeDrawingPane();
+        probe.mark("initializeDrawingPane");
         initializeAnimations();
+        probe.mark("initializeAnimations");
         layoutParts();
+        probe.mark("layoutParts");
         setupEventHandlers();
+        probe.mark("setupEventHandlers");
         setupValueChangeListeners();
+        probe.mark("setupValueChangeListeners");
         setupBindings();
+        probe.mark("setupBindings");
+        loadRegions();
+        probe.mark("loadRegions");
+        probe.finish();
     }
 
     private void initializeSelf() {
-        loadFonts("/fonts/Lato/Lato-Lig.ttf", "/fonts/Lato/Lato-Reg.ttf");
-        addStylesheetFiles("style.css");
+        if (!loadAsync) {
+            ResourceRegistry.loadFonts(ResourceRegistry.FONTS);
+        }
+        getStylesheets().add(ResourceRegistry.stylesheet(ResourceRegistry.STYLESHEET));
 
         getStyleClass().add("regionselector");
+        // a zoomed in map is cut off at the border of the control
+        setClip(clip);
     }
 
 
     private void initializeParts() {
-        cantonSvgs = new HashMap<>();
-        loadCantonSvgs();
-        regions = new HashMap<>();
-        addAllRegions();
+        Arrays.fill(cantonValues, Double.NaN);
+        Arrays.fill(cantonBuckets, ColorRamp.NO_BUCKET);
+
+        cantonSvgs = new SVGPath[CANTONS.length];
+        catalog = new RegionCatalog(new RegionPartition(Map.of()), cantonSvgs, null);
+
+        hoverOutline = new SVGPath();
+        hoverOutline.setMouseTransparent(true);
+        hoverOutline.setOpacity(0);
+        hoverOutline.getStyleClass().add("hover-region");
+
+        resortLayer = new ResortLayer(ARTBOARD_WIDTH, ARTBOARD_HEIGHT);
+
+        regionBorders = new SVGPath();
+        regionBorders.setMouseTransparent(true);
+        regionBorders.getStyleClass().add("region-borders");
 
         display = new Text();
         display.setMouseTransparent(true);
         display.getStyleClass().add("display");
+
+        placeholder = new Text("Karte wird geladen ...");
+        placeholder.setMouseTransparent(true);
+        placeholder.getStyleClass().add("placeholder");
+        placeholder.relocate(ARTBOARD_WIDTH * 0.4, ARTBOARD_HEIGHT * 0.45);
     }
 
     private void initializeDrawingPane() {
@@ -116,68 +276,214 @@ public class RegionSelectorControl extends Region {
     }
 
     private void initializeAnimations() {
+        fades = new CantonFade[CANTONS.length];
+        for (int i = 0; i < fades.length; i++) {
+            fades[i] = new CantonFade(i);
+        }
     }
 
     private void layoutParts() {
-        drawingPane.getChildren().addAll(cantonSvgs.values());
-        drawingPane.getChildren().addAll(display);
+        drawingPane.getChildren().add(placeholder);
 
         getChildren().add(drawingPane);
     }
 
     //Event Handlers change properties
     private void setupEventHandlers() {
-        for (var region : regions.values()) {
-            for (var svg : region.getCantonSvgs()) {
-                svg.setOnMouseEntered(event -> {
-                    setHoverRegion(region.getRegionName().getLongName());
-                });
-                svg.setOnMouseClicked(event -> {
-                    setSelectedRegion(region.getRegionName().getName());
-                });
-                svg.setOnMouseMoved(event -> {
-                    setxMouse(event.getX());
-                    setyMouse(event.getY());
-                });
-            }
-        }
         this.setOnMouseEntered(event -> {
             setDisplayVisibility(true);
         });
         this.setOnMouseExited(event -> {
             setDisplayVisibility(false);
         });
+        //zooms around the mouse position, the map coordinates under the mouse stay in place
+        this.setOnScroll(event -> {
+            double zoomed = clampZoom(getZoom() * Math.pow(WHEEL_ZOOM, event.getDeltaY()));
+            if (zoomed == getZoom()) {
+                // at the limit the scrolling is left to a scroll pane around the control
+                return;
+            }
+            double newScale = scale / clampZoom(getZoom()) * zoomed;
+            double offsetX = event.getX() - getWidth() * 0.5;
+            double offsetY = event.getY() - getHeight() * 0.5;
+            centerX += offsetX / scale - offsetX / newScale;
+            centerY += offsetY / scale - offsetY / newScale;
+            setZoom(zoomed);
+            event.consume();
+        });
+        this.setOnMousePressed(event -> {
+            dragX = event.getX();
+            dragY = event.getY();
+        });
+        this.setOnMouseDragged(event -> {
+            centerX -= (event.getX() - dragX) / scale;
+            centerY -= (event.getY() - dragY) / scale;
+            dragX = event.getX();
+            dragY = event.getY();
+            requestLayout();
+        });
+    }
+
+    // one handler for the whole map, the canton under the mouse is looked up in the shared spatial index
+    // and its region in the catalog, neither allocates nor hashes
+    private void setupRegionEventHandlers() {
+        drawingPane.setOnMouseMoved(event -> {
+            InteractionEvents.HoverEvent hover = InteractionEvents.HOVER.isEnabled() ? new InteractionEvents.HoverEvent() : null;
+            if (hover != null) {
+                hover.begin();
+            }
+            int region = regionAt(event.getX(), event.getY());
+            if (region != RegionCatalog.NONE) {
+                if (hover != null && region != hoverRegionId) {
+                    hover.regionId = region;
+                    hover.region = catalog.nameOf(region);
+                    pendingHover = hover;
+                    requestLayout();
+                }
+                setHoverRegionId(region);
+                setxMouse(event.getX());
+                setyMouse(event.getY());
+            }
+            Municipality municipality = municipalityLayer == null ? null : municipalityLayer.municipalityAt(event.getX(), event.getY());
+            if (municipality != hoverMunicipality.get()) {
+                hoverMunicipality.set(municipality);
+            }
+            Resort resort = resortLayer.resortAt(event.getX(), event.getY());
+            if (resort != hoverResort.get()) {
+                hoverResort.set(resort);
+            }
+        });
+        drawingPane.setOnMouseClicked(event -> {
+            //the end of a drag is no click
+            if (!event.isStillSincePress()) {
+                return;
+            }
+            InteractionEvents.SelectEvent select = InteractionEvents.SELECT.isEnabled() ? new InteractionEvents.SelectEvent() : null;
+            if (select != null) {
+                select.begin();
+            }
+            long selected = selection.getMask();
+            int region = regionAt(event.getX(), event.getY());
+            if (region != RegionCatalog.NONE && event.isShortcutDown()) {
+                selection.toggleMask(catalog.cantons(region));
+            } else if (region != RegionCatalog.NONE) {
+                selection.setMask(catalog.cantons(region));
+            }
+            if (select != null && selection.getMask() != selected) {
+                select.regionId = regionOfCantons(selection.getMask());
+                select.region = catalog.nameOf(select.regionId);
+                select.cantons = Long.bitCount(selection.getMask());
+                pendingSelect = select;
+                requestLayout();
+            }
+        });
+    }
+
+    // the id of the region under the point, RegionCatalog.NONE if there is none
+    private int regionAt(double x, double y) {
+        if (geometry == null) {
+            return RegionCatalog.NONE;
+        }
+        if (renderMode == RenderMode.CANVAS) {
+            return catalog.regionOf(geometry.pickBuffer().shapeAt(x, y));
+        }
+        Canton canton = geometry.cantonAt(x, y);
+        return canton == null ? RegionCatalog.NONE : catalog.regionOf(canton);
+    }
+
+    private void setHoverRegionId(int region) {
+        if (region == hoverRegionId) {
+            return;
+        }
+        hoverRegionId = region;
+        updateHoverOutline();
+        syncingHover = true;
+        try {
+            setHoverRegion(region == RegionCatalog.NONE ? null : catalog.region(region).getRegionName().getLongName());
+        } finally {
+            syncingHover = false;
+        }
     }
 
     //GUI updates based on changed property values
     private void setupValueChangeListeners() {
-        //colors selected region
+        //the selected region is a view onto the selection
         selectedRegionProperty().addListener((observable, oldValue, newValue) -> {
-            if (oldValue != null && !oldValue.equals("")) {
-                giveRegionColor(regions.get(oldValue), baseColor.get());
+            if (isReady() && !syncingSelection) {
+                selectRegion(newValue);
+            }
+        });
+
+        //recolors only the cantons whose selection changed
+        selection.addListener((added, removed) -> {
+            invalidateCantonColors(added | removed);
+            updateSelectedRegion();
+            updateHoverOutline();
+            updateMunicipalityLayer();
+            updateSelectedValue();
+        });
+
+        zoomProperty().addListener((observable, oldValue, newValue) -> requestLayout());
+        tileCacheProperty().addListener((observable, oldValue, newValue) -> {
+            if (canvasRenderer != null) {
+                canvasRenderer.setTileCache(newValue);
+            }
+        });
+
+        //the first value after a drain asks for a layout, the values are taken in the next layout pass
+        dataChannelProperty().addListener((observable, oldValue, newValue) -> {
+            if (oldValue != null) {
+                oldValue.connect(null);
+            }
+            if (newValue != null) {
+                newValue.connect(() -> Platform.runLater(this::requestLayout));
+            }
+        });
+
+        //all values fall into new buckets of new colors
+        colorRampProperty().addListener((observable, oldValue, newValue) -> {
+            long changed = 0;
+            for (int i = 0; i < CANTONS.length; i++) {
+                int bucket = newValue == null ? ColorRamp.NO_BUCKET : newValue.bucketOf(cantonValues[i]);
+                if (bucket != cantonBuckets[i] || bucket != ColorRamp.NO_BUCKET) {
+                    changed |= 1L << i;
+                }
+                cantonBuckets[i] = bucket;
+            }
+            invalidateCantonColors(changed);
+        });
+
+        partitionProperty().addListener((observable, oldValue, newValue) -> {
+            if (isReady()) {
+                switchPartition(partitionOrDefault());
             }
-            giveRegionColor(regions.get(newValue), selectColor.get());
         });
 
-        //colors hover region
+        //colors hover region, when set from outside
         hoverRegionProperty().addListener((observable, oldValue, newValue) -> {
-            var oldRegion = regions.get(oldValue);
-            var newRegion = regions.get(newValue);
-            if (oldValue != null && !oldValue.equals("")) {
-                //don't change if selected
-                if (!oldRegion.getRegionName().getName().equals(getSelectedRegion()))
-                    giveRegionColor(oldRegion, baseColor.get());
-            }
-            if (!newRegion.getRegionName().getName().equals(getSelectedRegion()))
-                giveRegionColor(newRegion, hoverColor.get());
+            if (!syncingHover) {
+                setHoverRegionId(catalog.idOf(newValue));
+            }
         });
 
         displayVisibilityProperty().addListener((observable, oldValue, newValue) -> {
             display.setVisible(newValue);
-            //resets hover region to base color when mouse is gone
-            if (getHoverRegion() != null && !getHoverRegion().equals("")
-                    && !getHoverRegion().equals(getSelectedRegion()))
-                giveRegionColor(regions.get(getHoverRegion()), baseColor.get());
+            //hides hover region when mouse is gone
+            updateHoverOutline();
+        });
+
+        //drills down into the selected canton
+        municipalitiesVisibleProperty().addListener((observable, oldValue, newValue) -> updateMunicipalityLayer());
+
+        hoverMunicipality.addListener((observable, oldValue, newValue) -> {
+            if (municipalityLayer != null) {
+                municipalityLayer.setHovered(newValue);
+            }
+        });
+        hoverColorProperty().addListener((observable, oldValue, newValue) -> {
+            if (municipalityLayer != null) {
+                municipalityLayer.setHoverColor(newValue);
+            }
         });
 
         xMouseProperty().addListener((observable, oldValue, newValue) -> {
@@ -190,82 +496,351 @@ public class RegionSelectorControl extends Region {
 
     private void setupBindings() {
         display.textProperty().bind(hoverRegionProperty());
+        hoverOutline.fillProperty().bind(hoverColorProperty());
+    }
+
+    private void loadRegions() {
+        var partition = partitionOrDefault();
+        if (!loadAsync) {
+            try {
+                attachRegions(loadMap(renderMode, partition));
+            } catch (IOException e) {
+                failLoading(e);
+            }
+            return;
+        }
+        CompletableFuture.supplyAsync(() -> {
+            ResourceRegistry.loadFonts(ResourceRegistry.FONTS);
+            try {
+                return loadMap(renderMode, partition);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, LOADER).whenComplete((loaded, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                failLoading(error);
+            } else {
+                attachRegions(loaded);
+            }
+        }));
+    }
+
+    // the map stays a placeholder, the control never gets ready
+    private void failLoading(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error instanceof UncheckedIOException) {
+            error = error.getCause();
+        }
+        LOGGER.log(System.Logger.Level.WARNING, "map not loaded", error);
+        placeholder.setText("Karte konnte nicht geladen werden");
+        loadError.set(error);
+    }
+
+    // adds the loaded map to the scene graph in one step, on the FX Application Thread
+    private void attachRegions(LoadedMap map) {
+        geometry = map.geometry;
+        cantonSvgs = map.cantonSvgs;
+        RegionCatalog loaded = map.catalog;
+        drawingPane.getChildren().clear();
+        for (SVGPath svg : cantonSvgs) {
+            if (svg != null) {
+                drawingPane.getChildren().add(svg);
+            }
+        }
+        drawingPane.getChildren().addAll(regionBorders, hoverOutline);
+        if (geometry != null) {
+            municipalityLayer = new MunicipalityLayer(geometry, LOADER);
+            municipalityLayer.setHoverColor(getHoverColor());
+            drawingPane.getChildren().add(municipalityLayer.getCanvas());
+        }
+        drawingPane.getChildren().addAll(resortLayer.getCanvas(), display);
+        if (renderMode == RenderMode.CANVAS && geometry != null) {
+            canvasRenderer = new CantonCanvasRenderer(geometry, ARTBOARD_WIDTH, ARTBOARD_HEIGHT);
+            canvasRenderer.setBaseColor(getBaseColor());
+            canvasRenderer.setTileCache(getTileCache());
+            getChildren().add(0, canvasRenderer.getCanvas());
+            requestLayout();
+        }
+        setupRegionEventHandlers();
+        applyCatalog(loaded);
+
+        ready.set(true);
+        //a selection made while loading is taken over now
+        if (selection.isEmpty()) {
+            selectRegion(getSelectedRegion());
+        } else {
+            updateSelectedRegion();
+        }
+        updateMunicipalityLayer();
+        //colors set while loading are applied with the first layout
+        invalidateCantonColors(CantonSelection.ALL);
+        requestLayout();
+        //the partition was switched while loading
+        if (loaded.getPartition() != partitionOrDefault()) {
+            switchPartition(partitionOrDefault());
+        }
+    }
+
+    private RegionPartition partitionOrDefault() {
+        return getPartition() != null ? getPartition() : RegionPartition.CANTONS;
+    }
+
+    // the merged outlines of a new partition are prepared in the background, the old one stays until they are ready
+    private void switchPartition(RegionPartition partition) {
+        int requested = ++catalogGeneration;
+        SVGPath[] svgs = cantonSvgs;
+        CantonGeometry outlines = geometry;
+        CompletableFuture.supplyAsync(() -> new RegionCatalog(partition, svgs, outlines), LOADER)
+                .whenComplete((loaded, error) -> {
+                    if (error != null) {
+                        LOGGER.log(System.Logger.Level.WARNING, "regions of the partition not loaded", error);
+                        return;
+                    }
+                    Platform.runLater(() -> {
+                        if (requested == catalogGeneration) {
+                            applyCatalog(loaded);
+                        }
+                    });
+                });
+    }
+
+    private void applyCatalog(RegionCatalog loaded) {
+        String hovered = getHoverRegion();
+        catalog = loaded;
+        regionBorders.setVisible(loaded.hasMergedRegions());
+        if (loaded.hasMergedRegions()) {
+            StringBuilder content = new StringBuilder();
+            for (int region = 0; region < loaded.size(); region++) {
+                content.append(loaded.outline(region).toSvgContent());
+            }
+            regionBorders.setContent(content.toString());
+        }
+        hoverRegionId = RegionCatalog.NONE;
+        // the ids of the new catalog name other regions
+        outlinedRegionId = RegionCatalog.NONE;
+        setHoverRegionId(loaded.idOf(hovered));
+        updateSelectedRegion();
     }
 
     @Override
     protected void layoutChildren() {
+        long layoutStart = System.nanoTime();
         super.layoutChildren();
+        if (getDataChannel() != null) {
+            getDataChannel().drain(valueSink);
+        }
+        InteractionEvents.RecolorEvent recolor = staleCantons != 0 && InteractionEvents.RECOLOR.isEnabled()
+                ? new InteractionEvents.RecolorEvent() : null;
+        if (recolor != null) {
+            recolor.begin();
+            recolor.regionId = regionOfCantons(staleCantons);
+            recolor.region = catalog == null ? null : catalog.nameOf(recolor.regionId);
+        }
+        int recolored = updateCantonColors();
+        updateCanvasFills();
+        if (recolor != null) {
+            recolor.cantons = recolored;
+            recolor.commitInPulse(nodesOf(recolored), layoutStart);
+        }
         resize();
+        resortLayer.repaintIfNeeded();
+        commitPendingEvents(recolored, layoutStart);
     }
 
-    private void loadCantonSvgs() {
-        try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document document = builder.parse(filepath);
-
-            String xpathExpression = "//path";
-            XPathFactory xpf = XPathFactory.newInstance();
-            XPath xpath = xpf.newXPath();
-            XPathExpression expression = xpath.compile(xpathExpression);
-            NodeList svgPaths = (NodeList) expression.evaluate(document, XPathConstants.NODESET);
-            svgPaths.getLength();
-
-            for (int i = 0; i < 26; i++) {
-                var id = svgPaths.item(i);
-                var map = id.getAttributes();
-                var d = map.item(0);
-                var dname = map.item(2).getNodeValue();
-                var dValue = d.getNodeValue();
+    // the mouse events reached the pulse that shows their fills
+    private void commitPendingEvents(int recolored, long layoutStart) {
+        if (pendingHover != null) {
+            // the hover outline
+            pendingHover.commitInPulse(1, layoutStart);
+            pendingHover = null;
+        }
+        if (pendingSelect != null) {
+            pendingSelect.commitInPulse(nodesOf(recolored) + 1, layoutStart);
+            pendingSelect = null;
+        }
+    }
+
+    // the nodes whose fill changes when cantons are recolored, a single canvas holds all of them
+    private int nodesOf(int cantons) {
+        return renderMode == RenderMode.CANVAS ? Math.min(cantons, 1) : cantons;
+    }
+
+    // touches no field, so it can run on the loader thread, the result is attached on the FX Application Thread
+    private static LoadedMap loadMap(RenderMode renderMode, RegionPartition partition) throws IOException {
+        CantonGeometry geometry = CantonGeometry.shared();
+        SVGPath[] cantonSvgs = new SVGPath[CANTONS.length];
+        if (renderMode == RenderMode.CANVAS) {
+            // warms up the pick buffer while still in the background when loading asynchronously
+            geometry.pickBuffer();
+        } else {
+            for (Canton canton : CANTONS) {
                 SVGPath svg = new SVGPath();
-                svg.setContent(dValue);
+                svg.setContent(geometry.outline(canton).toSvgContent());
                 svg.getStyleClass().add("defaultregion");
-                cantonSvgs.put(dname, svg);
+                svg.setMouseTransparent(true);
+                cantonSvgs[canton.ordinal()] = svg;
             }
-        } catch (SAXException | IOException | XPathExpressionException | ParserConfigurationException e) {
-            e.printStackTrace();
         }
+        return new LoadedMap(geometry, cantonSvgs, new RegionCatalog(partition, cantonSvgs, geometry));
     }
 
-    private void addAllRegions() {
-        if (useRegions) {
-            addCantonsToRegion(new SkiRegion.RegionName("WW", "Waadt und Wallis"), getListOfCantonSVGs(Canton.VD, Canton.VS));
-            addCantonsToRegion(new SkiRegion.RegionName("BE", "Berner Oberland"), getListOfCantonSVGs(Canton.BE));
-            addCantonsToRegion(new SkiRegion.RegionName("ZS", "Zentralschweiz"), getListOfCantonSVGs(Canton.LU, Canton.UR, Canton.SZ, Canton.OW, Canton.NW, Canton.ZG));
-            addCantonsToRegion(new SkiRegion.RegionName("GR", "Graubünden"), getListOfCantonSVGs(Canton.GR));
-            addCantonsToRegion(new SkiRegion.RegionName("OS", "Ostschweiz"), getListOfCantonSVGs(Canton.SG, Canton.GL));
-            addCantonsToRegion(new SkiRegion.RegionName("TI", "Tessin"), getListOfCantonSVGs(Canton.TI));
+    private static final class LoadedMap {
+        private final CantonGeometry geometry;
+        // by canton ordinal, empty when the cantons are drawn into a canvas
+        private final SVGPath[] cantonSvgs;
+        private final RegionCatalog catalog;
+
+        private LoadedMap(CantonGeometry geometry, SVGPath[] cantonSvgs, RegionCatalog catalog) {
+            this.geometry = geometry;
+            this.cantonSvgs = cantonSvgs;
+            this.catalog = catalog;
+        }
+    }
+
+    // selects the cantons of the region with the given name, nothing for an unknown name
+    private void selectRegion(String name) {
+        selection.setMask(catalog.cantons(catalog.idOf(name)));
+    }
+
+    // the selected region is the one consisting of exactly the selected cantons, null if there is none
+    private void updateSelectedRegion() {
+        if (!isReady()) {
+            return;
+        }
+        String name = selection.isEmpty() ? null : catalog.nameOf(regionOfCantons(selection.getMask()));
+        syncingSelection = true;
+        try {
+            setSelectedRegion(name);
+        } finally {
+            syncingSelection = false;
+        }
+    }
+
+    // the region consisting of exactly the cantons, RegionCatalog.NONE if there is none
+    private int regionOfCantons(long cantons) {
+        if (catalog == null || cantons == 0) {
+            return RegionCatalog.NONE;
+        }
+        int region = catalog.regionOf(Long.numberOfTrailingZeros(cantons));
+        return region != RegionCatalog.NONE && catalog.cantons(region) == cantons ? region : RegionCatalog.NONE;
+    }
+
+    // the hovered region is highlighted unless it is selected as a whole
+    private void updateHoverOutline() {
+        int region = hoverRegionId;
+        boolean visible = isDisplayVisibility() && region != RegionCatalog.NONE && catalog.outline(region) != null
+                && (catalog.cantons(region) & ~selection.getMask()) != 0;
+        if (visible) {
+            if (region != outlinedRegionId) {
+                // another region fades in from half way
+                outlinedRegionId = region;
+                hoverOutline.setContent(catalog.outline(region).toSvgContent());
+                hoverFade.jumpTo(Math.min(hoverOutline.getOpacity(), 0.5));
+                hoverScale.jumpTo(1);
+            }
+            hoverFade.animateTo(1);
+            hoverScale.animateTo(HOVER_SCALE);
         } else {
-            useCantonsAsRegions();
+            hoverFade.animateTo(0);
+            hoverScale.animateTo(1);
+        }
+    }
+
+    private void updateSelectedValue() {
+        Canton canton = selection.single();
+        selectedValue.set(canton == null ? Double.NaN : cantonValues[canton.ordinal()]);
+    }
+
+    // shows the municipalities while a single canton is selected or the map is zoomed in on a canton,
+    // releases them otherwise
+    private void updateMunicipalityLayer() {
+        if (municipalityLayer == null) {
+            return;
         }
+        Canton canton = selection.single() != null ? selection.single() : zoomedCanton;
+        municipalityLayer.show(isMunicipalitiesVisible() ? canton : null);
+        hoverMunicipality.set(null);
     }
 
-    private List<SVGPath> getListOfCantonSVGs(Canton... cantons) {
-        var result = new ArrayList<SVGPath>();
-        for (var canton : cantons) {
-            result.add(cantonSvgs.get(canton.getShortName()));
+    private void invalidateCantonColors(long cantons) {
+        // a layout is already requested while cantons are stale
+        boolean requested = staleCantons != 0;
+        staleCantons |= cantons;
+        if (!requested && cantons != 0) {
+            requestLayout();
+        }
+    }
+
+    // brings the fills of all cantons changed since the last pulse up to date in a single pass,
+    // returns the number of cantons recolored
+    private int updateCantonColors() {
+        if (staleCantons == 0 || !isReady()) {
+            return 0;
+        }
+        int recolored = 0;
+        for (long rest = staleCantons; rest != 0; rest &= rest - 1) {
+            int ordinal = Long.numberOfTrailingZeros(rest);
+            Color color = colorOf(CANTONS[ordinal]);
+            Color fill = color != null ? color : getBaseColor();
+            if (fill == null) {
+                continue;
+            }
+            if (fillsReset) {
+                // a new base color shows right away, like the css pass already did
+                fades[ordinal].jumpTo(fill);
+            } else {
+                fades[ordinal].animateTo(fill);
+            }
+            recolored++;
         }
-        return result;
+        staleCantons = 0;
+        fillsReset = false;
+        return recolored;
     }
 
-    private void addCantonsToRegion(RegionName regionName, List<SVGPath> cantons) {
-        var region = new SkiRegion(regionName, cantons);
-        regions.put(region.getRegionName().getName(), region);
+    // paints the canvas once for all fades that moved on since the last frame
+    private void updateCanvasFills() {
+        if (canvasRenderer != null && staleCanvasFills != 0) {
+            canvasRenderer.setFills(getBaseColor(), canvasFills, staleCanvasFills);
+        }
+        staleCanvasFills = 0;
     }
 
-    private void useCantonsAsRegions() {
-        for (var item :
-                Canton.values()) {
-            addCantonsToRegion(new RegionName(item.getShortName(), item.getName()), getListOfCantonSVGs(Arrays.stream(Canton.values())
-                    .filter(t -> t.getName().equals(item.getName()))
-                    .findFirst().get()));
+    private final class CantonFade extends TweenEngine.ColorTween {
+        private final int ordinal;
+
+        private CantonFade(int ordinal) {
+            super(FADE_MILLIS);
+            this.ordinal = ordinal;
+        }
+
+        @Override
+        void show(Color color) {
+            if (cantonSvgs[ordinal] != null) {
+                cantonSvgs[ordinal].setFill(color);
+            }
+            if (canvasRenderer != null) {
+                canvasFills[ordinal] = color;
+                if (staleCanvasFills == 0) {
+                    requestLayout();
+                }
+                staleCanvasFills |= 1L << ordinal;
+            }
         }
     }
 
-    private void giveRegionColor(SkiRegion skiRegion, Color color) {
-        for (var svg : skiRegion.getCantonSvgs()) {
-            svg.setFill(color);
+    // the color the canton has to be shown in right now, null for the base color
+    private Color colorOf(Canton canton) {
+        if (selection.contains(canton)) {
+            return getSelectColor();
+        }
+        Color color = cantonColors[canton.ordinal()];
+        if (color == null && getColorRamp() != null) {
+            color = getColorRamp().color(cantonBuckets[canton.ordinal()]);
         }
+        return color;
     }
 
     private void resize() {
@@ -274,12 +849,92 @@ public class RegionSelectorControl extends Region {
         double availableHeight = getHeight() - padding.getTop() - padding.getBottom();
 
         double width = Math.max(Math.min(Math.min(availableWidth, availableHeight * ASPECT_RATIO), MAXIMUM_WIDTH), MINIMUM_WIDTH);
-        double scalingFactor = width / ARTBOARD_WIDTH;
+        double zoomFactor = clampZoom(getZoom());
+        double scalingFactor = width / ARTBOARD_WIDTH * zoomFactor;
 
         if (availableWidth > 0 && availableHeight > 0) {
+            scale = scalingFactor;
+            clip.setWidth(getWidth());
+            clip.setHeight(getHeight());
+            // the view stays on the map, a map smaller than the control stays centered
+            double halfWidth = getWidth() * 0.5 / scalingFactor;
+            double halfHeight = getHeight() * 0.5 / scalingFactor;
+            centerX = halfWidth * 2 >= ARTBOARD_WIDTH ? ARTBOARD_WIDTH * 0.5 : Math.max(halfWidth, Math.min(ARTBOARD_WIDTH - halfWidth, centerX));
+            centerY = halfHeight * 2 >= ARTBOARD_HEIGHT ? ARTBOARD_HEIGHT * 0.5 : Math.max(halfHeight, Math.min(ARTBOARD_HEIGHT - halfHeight, centerY));
+            double minX = centerX - halfWidth;
+            double minY = centerY - halfHeight;
+            double maxX = centerX + halfWidth;
+            double maxY = centerY + halfHeight;
+
             relocateDrawingPaneCentered();
             drawingPane.setScaleX(scalingFactor);
             drawingPane.setScaleY(scalingFactor);
+            drawingPane.setTranslateX((ARTBOARD_WIDTH * 0.5 - centerX) * scalingFactor);
+            drawingPane.setTranslateY((ARTBOARD_HEIGHT * 0.5 - centerY) * scalingFactor);
+            // the hover text keeps its size
+            display.setScaleX(1 / zoomFactor);
+            display.setScaleY(1 / zoomFactor);
+            updateLevelOfDetail(scalingFactor);
+            cullCantons(minX, minY, maxX, maxY);
+            updateZoomedCanton(zoomFactor);
+            if (municipalityLayer != null) {
+                municipalityLayer.setView(Math.max(1, scalingFactor), minX, minY, maxX, maxY);
+            }
+            resortLayer.setView(scalingFactor, minX, minY, maxX, maxY);
+            if (canvasRenderer != null) {
+                // the canvas is not scaled, it is drawn in the size the map takes on screen
+                canvasRenderer.setView(scalingFactor, minX, minY, maxX, maxY);
+                canvasRenderer.getCanvas().relocate(getWidth() * 0.5 + (canvasRenderer.getViewMinX() - centerX) * scalingFactor,
+                        getHeight() * 0.5 + (canvasRenderer.getViewMinY() - centerY) * scalingFactor);
+            }
+        }
+    }
+
+    private static double clampZoom(double zoom) {
+        return Math.max(1, Math.min(MAXIMUM_ZOOM, zoom));
+    }
+
+    // cantons out of view are hidden, so the scene graph neither renders nor picks them
+    private void cullCantons(double minX, double minY, double maxX, double maxY) {
+        if (!isReady() || geometry == null) {
+            return;
+        }
+        long visible = 0;
+        for (Canton canton : CANTONS) {
+            PathGeometry outline = geometry.outline(canton);
+            if (outline.getMaxX() >= minX && outline.getMinX() <= maxX && outline.getMaxY() >= minY && outline.getMinY() <= maxY) {
+                visible |= CantonSelection.bit(canton);
+            }
+        }
+        for (long changed = visible ^ visibleCantons; changed != 0; changed &= changed - 1) {
+            int ordinal = Long.numberOfTrailingZeros(changed);
+            if (cantonSvgs[ordinal] != null) {
+                cantonSvgs[ordinal].setVisible((visible & 1L << ordinal) != 0);
+            }
+        }
+        visibleCantons = visible;
+    }
+
+    private void updateZoomedCanton(double zoomFactor) {
+        Canton canton = zoomFactor >= MUNICIPALITY_ZOOM && geometry != null ? geometry.cantonAt(centerX, centerY) : null;
+        if (canton != zoomedCanton) {
+            zoomedCanton = canton;
+            updateMunicipalityLayer();
+        }
+    }
+
+    // small maps get simplified outlines, there is no point in rendering vertices closer than a pixel
+    private void updateLevelOfDetail(double scalingFactor) {
+        int level = CantonGeometry.levelOfDetail(scalingFactor);
+        if (!isReady() || renderMode != RenderMode.NODES || geometry == null || level == levelOfDetail) {
+            return;
+        }
+        levelOfDetail = level;
+        for (Canton canton : Canton.values()) {
+            SVGPath svg = cantonSvgs[canton.ordinal()];
+            if (svg != null) {
+                svg.setContent(geometry.outline(canton, level).toSvgContent());
+            }
         }
     }
 
@@ -304,21 +959,123 @@ public class RegionSelectorControl extends Region {
 
     // Sammlung nuetzlicher Funktionen
 
-    private void loadFonts(String... font) {
-        for (String f : font) {
-            Font.loadFont(getClass().getResourceAsStream(f), 0);
+    private String colorToCss(final Color color) {
+        return color.toString().replace("0x", "#");
+    }
+
+    /**
+     * Changes the colors of several cantons at once, the colors they have while they are neither selected nor hovered.
+     * The changes are collected and applied together on the next pulse, so recoloring the whole map
+     * costs one pass no matter how many cantons change.
+     *
+     * Colors set here take precedence over the colors of the canton values.
+     *
+     * @param colors the new colors, a null value gives the canton the color of its value or the base color back
+     */
+    public void setCantonColors(Map<Canton, Color> colors) {
+        long changed = 0;
+        for (Map.Entry<Canton, Color> entry : colors.entrySet()) {
+            cantonColors[entry.getKey().ordinal()] = entry.getValue();
+            changed |= 1L << entry.getKey().ordinal();
+        }
+        if (changed != 0) {
+            invalidateCantonColors(changed);
+        }
+    }
+
+    /**
+     * Gives all cantons the base color back, on the next pulse.
+     */
+    public void clearCantonColors() {
+        Arrays.fill(cantonColors, null);
+        invalidateCantonColors(CantonSelection.ALL);
+    }
+
+    /**
+     * @return the color set with {@link #setCantonColors(Map)}, null if the canton has the base color
+     */
+    public Color getCantonColor(Canton canton) {
+        return cantonColors[canton.ordinal()];
+    }
+
+    /**
+     * Sets the value a canton is colored by with the {@link #colorRampProperty() color ramp}.
+     * Meant for live data, it can be called hundreds of times a second: the canton is only recolored
+     * when its value falls into another bucket of the ramp, at most once per pulse.
+     * Call it on the FX Application Thread.
+     *
+     * @param value the new value, NaN to remove it
+     */
+    public void setCantonValue(Canton canton, double value) {
+        int i = canton.ordinal();
+        cantonValues[i] = value;
+        if (selection.getMask() == 1L << i) {
+            selectedValue.set(value);
+        }
+        int bucket = getColorRamp() == null ? ColorRamp.NO_BUCKET : getColorRamp().bucketOf(value);
+        if (bucket != cantonBuckets[i]) {
+            cantonBuckets[i] = bucket;
+            invalidateCantonColors(1L << i);
         }
     }
 
-    private void addStylesheetFiles(String... stylesheetFile) {
-        for (String file : stylesheetFile) {
-            String stylesheet = getClass().getResource(file).toExternalForm();
-            getStylesheets().add(stylesheet);
+    /**
+     * Sets the values of several cantons, see {@link #setCantonValue(Canton, double)}.
+     */
+    public void setCantonValues(Map<Canton, ? extends Number> values) {
+        for (Map.Entry<Canton, ? extends Number> entry : values.entrySet()) {
+            setCantonValue(entry.getKey(), entry.getValue() == null ? Double.NaN : entry.getValue().doubleValue());
         }
     }
 
-    private String colorToCss(final Color color) {
-        return color.toString().replace("0x", "#");
+    /**
+     * @return the value of the canton, NaN if it has none
+     */
+    public double getCantonValue(Canton canton) {
+        return cantonValues[canton.ordinal()];
+    }
+
+    /**
+     * Shows the resorts as markers on the map, replacing the resorts shown so far. All fun parks are closed.
+     */
+    public void setResorts(List<Resort> resorts) {
+        resortLayer.setResorts(resorts);
+        requestLayout();
+    }
+
+    /**
+     * Adds a single resort, resorts close to each other are shown as one marker with their number.
+     */
+    public void addResort(Resort resort) {
+        resortLayer.addResort(resort);
+        if (resortLayer.isDirty()) {
+            requestLayout();
+        }
+    }
+
+    public void removeResort(Resort resort) {
+        resortLayer.removeResort(resort);
+        if (resortLayer.isDirty()) {
+            requestLayout();
+        }
+    }
+
+    /**
+     * Opens or closes the fun parks of several resorts, the markers are redrawn once on the next pulse.
+     */
+    public void setFunParks(Map<Resort, Boolean> funParks) {
+        resortLayer.setFunParks(funParks);
+        if (resortLayer.isDirty()) {
+            requestLayout();
+        }
+    }
+
+    public void setFunPark(Resort resort, boolean funPark) {
+        setFunParks(Map.of(resort, funPark));
+    }
+
+    public boolean isFunPark(Resort resort) {
+        return resortLayer.isFunPark(resort);
     }
 
     @Override
@@ -390,6 +1147,13 @@ public class RegionSelectorControl extends Region {
         this.baseColor.set(baseColor);
     }
 
+    /**
+     * @return the selected cantons, {@link #selectedRegionProperty()} is a view onto them
+     */
+    public CantonSelection getSelection() {
+        return selection;
+    }
+
     public String getSelectedRegion() {
         return selectedRegion.get();
     }
@@ -414,6 +1178,155 @@ public class RegionSelectorControl extends Region {
         this.hoverRegion.set(hoverRegion);
     }
 
+    public RegionPartition getPartition() {
+        return partition.get();
+    }
+
+    /**
+     * @return the regions the map is divided into, can be switched at any time, null means {@link RegionPartition#CANTONS}
+     */
+    public ObjectProperty<RegionPartition> partitionProperty() {
+        return partition;
+    }
+
+    public void setPartition(RegionPartition partition) {
+        this.partition.set(partition);
+    }
+
+    public ColorRamp getColorRamp() {
+        return colorRamp.get();
+    }
+
+    /**
+     * @return the colors the canton values are shown with, null to show no values
+     */
+    public ObjectProperty<ColorRamp> colorRampProperty() {
+        return colorRamp;
+    }
+
+    public void setColorRamp(ColorRamp colorRamp) {
+        this.colorRamp.set(colorRamp);
+    }
+
+    public CantonDataChannel getDataChannel() {
+        return dataChannel.get();
+    }
+
+    /**
+     * @return the channel background threads publish canton values into, they are taken out once per pulse
+     * and shown like values set with {@link #setCantonValue(Canton, double)}
+     */
+    public ObjectProperty<CantonDataChannel> dataChannelProperty() {
+        return dataChannel;
+    }
+
+    public void setDataChannel(CantonDataChannel dataChannel) {
+        this.dataChannel.set(dataChannel);
+    }
+
+    public MapTileCache getTileCache() {
+        return tileCache.get();
+    }
+
+    /**
+     * @return the tiles the base map is drawn from in {@link RenderMode#CANVAS}, null to draw the cantons as paths.
+     * All controls share {@link MapTileCache#shared()} by default.
+     */
+    public ObjectProperty<MapTileCache> tileCacheProperty() {
+        return tileCache;
+    }
+
+    public void setTileCache(MapTileCache tileCache) {
+        this.tileCache.set(tileCache);
+    }
+
+    public double getZoom() {
+        return zoom.get();
+    }
+
+    /**
+     * @return how far the map is zoomed in, 1 shows the whole map. Values outside of 1 to 16 are clamped.
+     */
+    public DoubleProperty zoomProperty() {
+        return zoom;
+    }
+
+    public void setZoom(double zoom) {
+        this.zoom.set(zoom);
+    }
+
+    public Resort getHoverResort() {
+        return hoverResort.get();
+    }
+
+    /**
+     * @return the resort whose marker is under the mouse, null if there is none
+     */
+    public ReadOnlyObjectProperty<Resort> hoverResortProperty() {
+        return hoverResort.getReadOnlyProperty();
+    }
+
+    public double getSelectedValue() {
+        return selectedValue.get();
+    }
+
+    /**
+     * @return the value of the selected canton, NaN unless exactly one canton with a value is selected
+     */
+    public ReadOnlyDoubleProperty selectedValueProperty() {
+        return selectedValue.getReadOnlyProperty();
+    }
+
+    public RenderMode getRenderMode() {
+        return renderMode;
+    }
+
+    public boolean isReady() {
+        return ready.get();
+    }
+
+    /**
+     * @return true as soon as the map is shown, right after construction unless the control is loaded asynchronously.
+     * Stays false if the map cannot be loaded, see {@link #loadErrorProperty()}
+     */
+    public ReadOnlyBooleanProperty readyProperty() {
+        return ready.getReadOnlyProperty();
+    }
+
+    public Throwable getLoadError() {
+        return loadError.get();
+    }
+
+    /**
+     * @return why the map could not be loaded, null while it is loading or once it is shown
+     */
+    public ReadOnlyObjectProperty<Throwable> loadErrorProperty() {
+        return loadError.getReadOnlyProperty();
+    }
+
+    public boolean isMunicipalitiesVisible() {
+        return municipalitiesVisible.get();
+    }
+
+    /**
+     * @return whether selecting a single canton shows its municipalities
+     */
+    public BooleanProperty municipalitiesVisibleProperty() {
+        return municipalitiesVisible;
+    }
+
+    public void setMunicipalitiesVisible(boolean municipalitiesVisible) {
+        this.municipalitiesVisible.set(municipalitiesVisible);
+    }
+
+    public Municipality getHoverMunicipality() {
+        return hoverMunicipality.get();
+    }
+
+    public ReadOnlyObjectProperty<Municipality> hoverMunicipalityProperty() {
+        return hoverMunicipality.getReadOnlyProperty();
+    }
+
     public boolean isDisplayVisibility() {
         return displayVisibility.get();
     }
@@ -6,7 +6,6 @@ import javafx.geometry.Insets;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.Region;
 import javafx.scene.paint.Color;
-import javafx.scene.text.Font;
 
 import java.util.List;
 
@@ -33,6 +32,8 @@ public class RegionSnowmanDashboard extends Region {
     private static final double MAXIMUM_WIDTH = 1200;
     private static final double MAXIMUM_HEIGHT = 675;
 
+    private final boolean loadAsync;
+
     //the custom controls for the dashboard
     private RegionSelectorControl regionSelectorControl;
     private SnowmanControl snowmanControl;
@@ -43,6 +44,8 @@ public class RegionSnowmanDashboard extends Region {
     private final ObjectProperty<Color> hoverColor = new SimpleObjectProperty<>();
     private final ObjectProperty<Color> selectColor = new SimpleObjectProperty<>();
     private final StringProperty selectedRegion = new SimpleStringProperty();
+    private final ObjectProperty<RegionPartition> partition = new SimpleObjectProperty<>(RegionPartition.CANTONS);
+    private final ObjectProperty<CantonDataChannel> dataChannel = new SimpleObjectProperty<>();
 
     //the three stylable properties for the base color, the selected color and the hover color
     private static final CssMetaData<RegionSnowmanDashboard, Color> BASE_COLOR_META_DATA = FACTORY.createColorCssMetaData("-base-color", s -> s.baseColor);
@@ -58,19 +61,38 @@ public class RegionSnowmanDashboard extends Region {
     private GridPane pane = new GridPane();
 
     public RegionSnowmanDashboard() {
+        this(false);
+    }
+
+    /**
+     * @param loadAsync if true, the map of the region selector is loaded in the background
+     * @see #readyProperty()
+     */
+    public RegionSnowmanDashboard(boolean loadAsync) {
+        this.loadAsync = loadAsync;
+        StartupProbe probe = StartupProbe.start(this);
         initializeSelf();
+        probe.mark("initializeSelf");
         initializeParts();
+        probe.mark("initializeParts");
         initializeDrawingPane();
+        probe.mark("initializeDrawingPane");
         initializeAnimations();
+        probe.mark("initializeAnimations");
         layoutParts();
+        probe.mark("layoutParts");
         setupEventHandlers();
+        probe.mark("setupEventHandlers");
         setupValueChangeListeners();
+        probe.mark("setupValueChangeListeners");
         setupBindings();
+        probe.mark("setupBindings");
+        probe.finish();
     }
 
     private void initializeSelf() {
-        loadFonts("/fonts/Lato/Lato-Lig.ttf", "/fonts/Lato/Lato-Reg.ttf");
-        addStylesheetFiles("style.css");
+        ResourceRegistry.loadFonts(ResourceRegistry.FONTS);
+        getStylesheets().add(ResourceRegistry.stylesheet(ResourceRegistry.STYLESHEET));
 
         getStyleClass().add("dashboard");
     }
@@ -78,7 +100,7 @@ public class RegionSnowmanDashboard extends Region {
     private void initializeParts() {
         double center = ARTBOARD_WIDTH * 0.5;
 
-        regionSelectorControl = new RegionSelectorControl();
+        regionSelectorControl = new RegionSelectorControl(loadAsync);
         snowmanControl = new SnowmanControl();
     }
 
@@ -112,6 +134,14 @@ public class RegionSnowmanDashboard extends Region {
         regionSelectorControl.hoverColorProperty().bindBidirectional(hoverColorProperty());
         regionSelectorControl.selectColorProperty().bindBidirectional(selectColorProperty());
         regionSelectorControl.selectedRegionProperty().bindBidirectional(selectedRegionProperty());
+        regionSelectorControl.partitionProperty().bindBidirectional(partitionProperty());
+        regionSelectorControl.dataChannelProperty().bindBidirectional(dataChannelProperty());
+        //shows the latest value of the selected canton, keeps the value while no single canton with a value is selected
+        regionSelectorControl.selectedValueProperty().addListener((observable, oldValue, newValue) -> {
+            if (!Double.isNaN(newValue.doubleValue())) {
+                setValue(newValue.doubleValue());
+            }
+        });
 
     }
 
@@ -157,19 +187,6 @@ public class RegionSnowmanDashboard extends Region {
     }
 
     // Sammlung nuetzlicher Funktionen
-    private void loadFonts(String... font) {
-        for (String f : font) {
-            Font.loadFont(getClass().getResourceAsStream(f), 0);
-        }
-    }
-
-    private void addStylesheetFiles(String... stylesheetFile) {
-        for (String file : stylesheetFile) {
-            String stylesheet = getClass().getResource(file).toExternalForm();
-            getStylesheets().add(stylesheet);
-        }
-    }
-
     private String colorToCss(final Color color) {
         return color.toString().replace("0x", "#");
     }
@@ -269,6 +286,49 @@ public class RegionSnowmanDashboard extends Region {
         this.selectedRegion.set(selectedRegion);
     }
 
+    public CantonDataChannel getDataChannel() {
+        return dataChannel.get();
+    }
+
+    /**
+     * @return the channel feeding the region selector with canton values, {@link #valueProperty()} follows the selected canton
+     * as long as it has a value
+     */
+    public ObjectProperty<CantonDataChannel> dataChannelProperty() {
+        return dataChannel;
+    }
+
+    public void setDataChannel(CantonDataChannel dataChannel) {
+        this.dataChannel.set(dataChannel);
+    }
+
+    public RegionPartition getPartition() {
+        return partition.get();
+    }
+
+    public ObjectProperty<RegionPartition> partitionProperty() {
+        return partition;
+    }
+
+    public void setPartition(RegionPartition partition) {
+        this.partition.set(partition);
+    }
+
+    /**
+     * @return the cantons selected on the map, see {@link RegionSelectorControl#getSelection()}
+     */
+    public CantonSelection getSelection() {
+        return regionSelectorControl.getSelection();
+    }
+
+    public boolean isReady() {
+        return regionSelectorControl.isReady();
+    }
+
+    public ReadOnlyBooleanProperty readyProperty() {
+        return regionSelectorControl.readyProperty();
+    }
+
     public boolean isIsFun() {
         return isFun.get();
     }
@@ -0,0 +1,33 @@
+package cantonselector;
+
+/**
+ * A ski resort shown as marker on the map, at a position in the coordinates of the canton map.
+ */
+public final class Resort {
+    private final String name;
+    private final double x;
+    private final double y;
+
+    public Resort(String name, double x, double y) {
+        this.name = name;
+        this.x = x;
+        this.y = y;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,257 @@
+package cantonselector;
+
+import javafx.geometry.VPos;
+import javafx.scene.Group;
+import javafx.scene.Scene;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.layout.Background;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+import javafx.scene.transform.Scale;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shows resorts as small snowmen, happy if the fun park is open.
+ * A {@link SnowmanControl} is rasterized once in each mood and the markers are drawn as these sprites
+ * into one canvas, so hundreds of resorts cost a single node instead of a dozen shapes with an effect each.
+ * Markers keep their size on screen, resorts too close to each other at the current scale are shown as
+ * one marker with their number, taken from a {@link ResortQuadtree}. Only the part of the map in view is drawn.
+ * Changes are collected and drawn once per pulse, see {@link #repaintIfNeeded()}.
+ */
+final class ResortLayer {
+    // height of a marker in pixels on screen, the marker stands on the position of its resort
+    static final double MARKER_HEIGHT = 24;
+    // resorts closer than this many pixels on screen are combined
+    private static final double CLUSTER_SIZE = 2 * MARKER_HEIGHT;
+    // pixels the sprites are rasterized with
+    private static final double SPRITE_HEIGHT = 64;
+    private static final Color BADGE_COLOR = Color.rgb(40, 40, 40, 0.85);
+
+    // rasterized on first use, shared by all layers
+    private static Image happySprite;
+    private static Image sadSprite;
+    // width of a marker relative to its height, taken from the sprites once they exist
+    private static double markerAspect = 105.0 / 130;
+
+    private final double width;
+    private final double height;
+    private final Canvas canvas = new Canvas();
+    private final Scale pixelScale = new Scale(1, 1, 0, 0);
+    private final ResortQuadtree tree;
+
+    private double scale = 1;
+    private double resolution = 1;
+    // the part of the map the canvas covers, in map units
+    private double viewMinX;
+    private double viewMinY;
+    private double viewMaxX;
+    private double viewMaxY;
+    private boolean dirty;
+
+    // the markers drawn last, for hit testing
+    private int drawnCount;
+    private double[] drawnX = new double[64];
+    private double[] drawnY = new double[64];
+    private int[] drawnResorts = new int[64];
+    private int[] drawnFunParks = new int[64];
+    private Resort[] drawnResort = new Resort[64];
+
+    /**
+     * @param width  width of the map, in map units
+     * @param height height of the map, in map units
+     */
+    ResortLayer(double width, double height) {
+        this.width = width;
+        this.height = height;
+        viewMaxX = width;
+        viewMaxY = height;
+        tree = new ResortQuadtree(0, 0, width, height);
+        canvas.setMouseTransparent(true);
+        canvas.getTransforms().add(pixelScale);
+    }
+
+    Canvas getCanvas() {
+        return canvas;
+    }
+
+    void setResorts(List<Resort> resorts) {
+        tree.clear();
+        for (Resort resort : resorts) {
+            tree.add(resort);
+        }
+        dirty = true;
+    }
+
+    void addResort(Resort resort) {
+        dirty |= tree.add(resort);
+    }
+
+    void removeResort(Resort resort) {
+        dirty |= tree.remove(resort);
+    }
+
+    /**
+     * Changes the fun park state of several resorts, resorts not shown are ignored.
+     */
+    void setFunParks(Map<Resort, Boolean> changes) {
+        for (Map.Entry<Resort, Boolean> change : changes.entrySet()) {
+            dirty |= tree.setFunPark(change.getKey(), change.getValue());
+        }
+    }
+
+    boolean isFunPark(Resort resort) {
+        return tree.isFunPark(resort);
+    }
+
+    /**
+     * @param scale pixels on screen per map unit
+     * @param minX  the part of the map in view, in map units
+     */
+    void setView(double scale, double minX, double minY, double maxX, double maxY) {
+        minX = Math.max(0, minX);
+        minY = Math.max(0, minY);
+        maxX = Math.min(width, maxX);
+        maxY = Math.min(height, maxY);
+        if (scale != this.scale || minX != viewMinX || minY != viewMinY || maxX != viewMaxX || maxY != viewMaxY) {
+            this.scale = scale;
+            // never fewer pixels than map units, the canvas is scaled down with the map
+            resolution = Math.max(1, scale);
+            viewMinX = minX;
+            viewMinY = minY;
+            viewMaxX = maxX;
+            viewMaxY = maxY;
+            dirty = true;
+        }
+    }
+
+    /**
+     * @return true if there are changes to draw
+     */
+    boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * @return the topmost single resort whose marker covers the map coordinates, null if there is none
+     */
+    Resort resortAt(double x, double y) {
+        double markerHeight = MARKER_HEIGHT / scale;
+        double markerWidth = markerHeight * markerAspect;
+        // the marker drawn last is on top, clusters are no resort and do not hide the markers beneath them
+        for (int i = drawnCount - 1; i >= 0; i--) {
+            if (drawnResort[i] == null) {
+                continue;
+            }
+            double left = drawnX[i] - markerWidth / 2;
+            double top = drawnY[i] - markerHeight;
+            if (x >= left && x <= left + markerWidth && y >= top && y <= drawnY[i]) {
+                return drawnResort[i];
+            }
+        }
+        return null;
+    }
+
+    void repaintIfNeeded() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        canvas.relocate(viewMinX, viewMinY);
+        canvas.setWidth(Math.max(0, Math.ceil((viewMaxX - viewMinX) * resolution)));
+        canvas.setHeight(Math.max(0, Math.ceil((viewMaxY - viewMinY) * resolution)));
+        pixelScale.setX(1 / resolution);
+        pixelScale.setY(1 / resolution);
+
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        drawnCount = 0;
+        if (tree.size() == 0) {
+            return;
+        }
+        Image happy = sprite(true);
+        Image sad = sprite(false);
+        // a marker standing on the bottom edge reaches this far into the map
+        double markerHeight = MARKER_HEIGHT / scale;
+        double markerWidth = markerHeight * markerAspect;
+        tree.clusters(viewMinX - markerWidth, viewMinY, viewMaxX + markerWidth, viewMaxY + markerHeight,
+                CLUSTER_SIZE / scale, this::addDrawn);
+
+        double w = markerWidth * resolution;
+        double h = markerHeight * resolution;
+        gc.setFont(Font.font("Lato", h * 0.35));
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+        for (int i = 0; i < drawnCount; i++) {
+            double x = (drawnX[i] - viewMinX) * resolution;
+            double y = (drawnY[i] - viewMinY) * resolution;
+            // a cluster is happy if most of its fun parks are open
+            gc.drawImage(2 * drawnFunParks[i] > drawnResorts[i] ? happy : sad, x - w / 2, y - h, w, h);
+            if (drawnResorts[i] > 1) {
+                drawBadge(gc, drawnResorts[i], x + w / 2, y - h, h * 0.25);
+            }
+        }
+    }
+
+    private void addDrawn(double x, double y, int resorts, int funParks, Resort resort) {
+        if (drawnCount == drawnX.length) {
+            int capacity = drawnCount * 2;
+            drawnX = Arrays.copyOf(drawnX, capacity);
+            drawnY = Arrays.copyOf(drawnY, capacity);
+            drawnResorts = Arrays.copyOf(drawnResorts, capacity);
+            drawnFunParks = Arrays.copyOf(drawnFunParks, capacity);
+            drawnResort = Arrays.copyOf(drawnResort, capacity);
+        }
+        drawnX[drawnCount] = x;
+        drawnY[drawnCount] = y;
+        drawnResorts[drawnCount] = resorts;
+        drawnFunParks[drawnCount] = funParks;
+        drawnResort[drawnCount] = resort;
+        drawnCount++;
+    }
+
+    // the number of resorts of a cluster in a circle at the top right of its marker
+    private static void drawBadge(GraphicsContext gc, int resorts, double x, double y, double radius) {
+        String label = resorts < 1000 ? Integer.toString(resorts) : resorts / 1000 + "k";
+        double r = label.length() > 2 ? radius * 1.3 : radius;
+        gc.setFill(BADGE_COLOR);
+        gc.fillOval(x - r, y - radius, 2 * r, 2 * radius);
+        gc.setFill(Color.WHITE);
+        gc.fillText(label, x, y);
+    }
+
+    private static Image sprite(boolean happy) {
+        if (happySprite == null) {
+            happySprite = rasterize(true);
+            sadSprite = rasterize(false);
+            markerAspect = happySprite.getWidth() / happySprite.getHeight();
+        }
+        return happy ? happySprite : sadSprite;
+    }
+
+    // snapshots a snowman styled by its own stylesheet, drop shadow included, on a transparent background
+    private static Image rasterize(boolean happy) {
+        SnowmanControl snowman = new SnowmanControl();
+        snowman.setValue(happy);
+        snowman.finishAnimations();
+        // a scene of its own, so the stylesheet applies
+        new Scene(new Group(snowman));
+        snowman.applyCss();
+        snowman.resize(snowman.prefWidth(-1), snowman.prefHeight(-1));
+        snowman.layout();
+        // the snowman sets its own style, so the background is removed after css
+        snowman.setBackground(Background.EMPTY);
+
+        double scale = SPRITE_HEIGHT / snowman.getHeight();
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        parameters.setTransform(new Scale(scale, scale));
+        return snowman.snapshot(parameters, null);
+    }
+}
@@ -0,0 +1,286 @@
+package cantonselector;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Keeps resorts in a quadtree over the map. Every node knows how many resorts are below it, their center
+ * and how many of them have their fun park open, so the clusters of any zoom level are read off the nodes.
+ * Adding or removing a resort or opening a fun park only updates the nodes on the path to its leaf,
+ * nothing is rebuilt.
+ * <p>
+ * Only used on the FX Application Thread.
+ */
+final class ResortQuadtree {
+    // resorts a leaf holds before it is split, a node with fewer resorts below it is a leaf again
+    private static final int LEAF_CAPACITY = 16;
+    // nodes this small are not split any further, for many resorts on the same spot
+    private static final double MIN_NODE_SIZE = 0.5;
+
+    /**
+     * Receives the clusters found by {@link #clusters}.
+     */
+    interface ClusterSink {
+        /**
+         * @param x        center of the resorts in the cluster
+         * @param y        center of the resorts in the cluster
+         * @param funParks number of resorts in the cluster with their fun park open
+         * @param resort   the resort if the cluster is a single one, null otherwise
+         */
+        void accept(double x, double y, int count, int funParks, Resort resort);
+    }
+
+    private final double originX;
+    private final double originY;
+    private final double size;
+    private Node root;
+
+    private final Set<Resort> resorts = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Resort> funParks = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // scratch space of collectLeaf
+    private Resort[] groupFirst = new Resort[0];
+    private int[] groupCounts;
+    private int[] groupFunParks;
+    private double[] groupSums;
+
+    /**
+     * Resorts outside of the bounds are kept at the nearest border, their position is still used for the clusters.
+     */
+    ResortQuadtree(double minX, double minY, double maxX, double maxY) {
+        originX = minX;
+        originY = minY;
+        size = Math.max(maxX - minX, maxY - minY);
+        root = new Node(originX, originY, size);
+    }
+
+    int size() {
+        return root.count;
+    }
+
+    boolean contains(Resort resort) {
+        return resorts.contains(resort);
+    }
+
+    void clear() {
+        resorts.clear();
+        funParks.clear();
+        root = new Node(originX, originY, size);
+    }
+
+    /**
+     * @return false if the resort is already in the tree
+     */
+    boolean add(Resort resort) {
+        if (!resorts.add(resort)) {
+            return false;
+        }
+        insert(root, resort, clampX(resort.getX()), clampY(resort.getY()), false);
+        return true;
+    }
+
+    /**
+     * @return false if the resort is not in the tree
+     */
+    boolean remove(Resort resort) {
+        if (!resorts.remove(resort)) {
+            return false;
+        }
+        remove(root, resort, clampX(resort.getX()), clampY(resort.getY()), funParks.remove(resort));
+        return true;
+    }
+
+    boolean isFunPark(Resort resort) {
+        return funParks.contains(resort);
+    }
+
+    /**
+     * @return true if the state of the resort changed
+     */
+    boolean setFunPark(Resort resort, boolean funPark) {
+        if (!resorts.contains(resort) || funParks.contains(resort) == funPark) {
+            return false;
+        }
+        if (funPark) {
+            funParks.add(resort);
+        } else {
+            funParks.remove(resort);
+        }
+        double x = clampX(resort.getX());
+        double y = clampY(resort.getY());
+        for (Node node = root; node != null; node = node.children == null ? null : node.childAt(x, y)) {
+            node.funParks += funPark ? 1 : -1;
+        }
+        return true;
+    }
+
+    /**
+     * Hands the clusters within the bounds to the sink. Resorts closer than about the cell size are combined,
+     * a node no larger than the cell is one cluster, the resorts of a larger leaf are grouped by distance.
+     */
+    void clusters(double minX, double minY, double maxX, double maxY, double cellSize, ClusterSink sink) {
+        collect(root, minX, minY, maxX, maxY, cellSize, sink);
+    }
+
+    private void collect(Node node, double minX, double minY, double maxX, double maxY, double cellSize, ClusterSink sink) {
+        if (node.count == 0 || node.x > maxX || node.y > maxY || node.x + node.size < minX || node.y + node.size < minY) {
+            return;
+        }
+        if (node.count > 1 && node.size <= cellSize) {
+            sink.accept(node.sumX / node.count, node.sumY / node.count, node.count, node.funParks, null);
+        } else if (node.children == null) {
+            collectLeaf(node, cellSize, sink);
+        } else {
+            for (Node child : node.children) {
+                collect(child, minX, minY, maxX, maxY, cellSize, sink);
+            }
+        }
+    }
+
+    // the resorts of a leaf larger than the cell, combined with the first group closer than the cell size
+    private void collectLeaf(Node node, double cellSize, ClusterSink sink) {
+        if (groupFirst.length < node.count) {
+            groupFirst = new Resort[node.count];
+            groupCounts = new int[node.count];
+            groupFunParks = new int[node.count];
+            groupSums = new double[node.count * 2];
+        }
+        int groups = 0;
+        for (int i = 0; i < node.count; i++) {
+            Resort resort = node.resorts[i];
+            int group = 0;
+            while (group < groups
+                    && (Math.abs(groupSums[group * 2] / groupCounts[group] - resort.getX()) >= cellSize
+                    || Math.abs(groupSums[group * 2 + 1] / groupCounts[group] - resort.getY()) >= cellSize)) {
+                group++;
+            }
+            if (group == groups) {
+                groups++;
+                groupFirst[group] = resort;
+                groupCounts[group] = 0;
+                groupFunParks[group] = 0;
+                groupSums[group * 2] = groupSums[group * 2 + 1] = 0;
+            }
+            groupCounts[group]++;
+            groupFunParks[group] += funParks.contains(resort) ? 1 : 0;
+            groupSums[group * 2] += resort.getX();
+            groupSums[group * 2 + 1] += resort.getY();
+        }
+        for (int group = 0; group < groups; group++) {
+            int count = groupCounts[group];
+            sink.accept(groupSums[group * 2] / count, groupSums[group * 2 + 1] / count, count, groupFunParks[group],
+                    count == 1 ? groupFirst[group] : null);
+        }
+    }
+
+    private void insert(Node node, Resort resort, double x, double y, boolean funPark) {
+        node.count++;
+        node.sumX += resort.getX();
+        node.sumY += resort.getY();
+        if (funPark) {
+            node.funParks++;
+        }
+        if (node.children != null) {
+            insert(node.childAt(x, y), resort, x, y, funPark);
+            return;
+        }
+        if (node.count > node.resorts.length) {
+            node.resorts = Arrays.copyOf(node.resorts, node.resorts.length * 2);
+        }
+        node.resorts[node.count - 1] = resort;
+        if (node.count > LEAF_CAPACITY && node.size / 2 >= MIN_NODE_SIZE) {
+            split(node);
+        }
+    }
+
+    private void remove(Node node, Resort resort, double x, double y, boolean funPark) {
+        node.count--;
+        if (node.count == 0) {
+            // no rounding errors left behind
+            node.sumX = node.sumY = 0;
+        } else {
+            node.sumX -= resort.getX();
+            node.sumY -= resort.getY();
+        }
+        if (funPark) {
+            node.funParks--;
+        }
+        if (node.children == null) {
+            for (int i = 0; i <= node.count; i++) {
+                if (node.resorts[i] == resort) {
+                    // the last one takes the free place
+                    node.resorts[i] = node.resorts[node.count];
+                    node.resorts[node.count] = null;
+                    return;
+                }
+            }
+            return;
+        }
+        remove(node.childAt(x, y), resort, x, y, funPark);
+        if (node.count <= LEAF_CAPACITY) {
+            // the children are leaves already, they collapsed on the way back up
+            Resort[] collected = new Resort[LEAF_CAPACITY];
+            int n = 0;
+            for (Node child : node.children) {
+                System.arraycopy(child.resorts, 0, collected, n, child.count);
+                n += child.count;
+            }
+            node.resorts = collected;
+            node.children = null;
+        }
+    }
+
+    private void split(Node node) {
+        double half = node.size / 2;
+        node.children = new Node[]{
+                new Node(node.x, node.y, half), new Node(node.x + half, node.y, half),
+                new Node(node.x, node.y + half, half), new Node(node.x + half, node.y + half, half)};
+        Resort[] moved = node.resorts;
+        int n = node.count;
+        node.resorts = null;
+        for (int i = 0; i < n; i++) {
+            Resort resort = moved[i];
+            double x = clampX(resort.getX());
+            double y = clampY(resort.getY());
+            insert(node.childAt(x, y), resort, x, y, funParks.contains(resort));
+        }
+    }
+
+    private double clampX(double x) {
+        return Math.max(originX, Math.min(originX + size, x));
+    }
+
+    private double clampY(double y) {
+        return Math.max(originY, Math.min(originY + size, y));
+    }
+
+    private static final class Node {
+        // top left corner and side length of the square
+        final double x;
+        final double y;
+        final double size;
+
+        int count;
+        int funParks;
+        double sumX;
+        double sumY;
+
+        // four quadrants, null for a leaf
+        Node[] children;
+        // the resorts of a leaf, the first count of them are used
+        Resort[] resorts = new Resort[4];
+
+        Node(double x, double y, double size) {
+            this.x = x;
+            this.y = y;
+            this.size = size;
+        }
+
+        Node childAt(double px, double py) {
+            double half = size / 2;
+            return children[(px < x + half ? 0 : 1) + (py < y + half ? 0 : 2)];
+        }
+    }
+}
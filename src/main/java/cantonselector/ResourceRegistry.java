@@ -0,0 +1,100 @@
+package cantonselector;
+
+import javafx.scene.text.Font;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads the fonts and resolves the stylesheets of the controls once per process, however many controls
+ * are created. Safe to use from any thread.
+ * <p>
+ * An application can call {@link #warmUp()} at start, so the first control finds everything loaded.
+ */
+public final class ResourceRegistry {
+    static final String[] FONTS = {"/fonts/Lato/Lato-Lig.ttf", "/fonts/Lato/Lato-Reg.ttf"};
+    static final String STYLESHEET = "style.css";
+
+    private static final System.Logger LOGGER = System.getLogger(ResourceRegistry.class.getName());
+    private static final Executor WARM_UP = Executors.newCachedThreadPool(DaemonThreads.named("resource-warm-up"));
+
+    // by resource path, a font that failed to load is tried again next time
+    private static final Map<String, Font> fonts = new ConcurrentHashMap<>();
+    // external form of the stylesheet urls by file name
+    private static final Map<String, String> stylesheets = new ConcurrentHashMap<>();
+
+    private ResourceRegistry() {
+    }
+
+    /**
+     * Loads the fonts not loaded yet, callers asking for a font being loaded wait for it.
+     *
+     * @param paths resource paths of the font files
+     */
+    public static void loadFonts(String... paths) {
+        for (String path : paths) {
+            fonts.computeIfAbsent(path, ResourceRegistry::loadFont);
+        }
+    }
+
+    /**
+     * @param file stylesheet next to the controls
+     * @return the url of the stylesheet, as added to the stylesheets of a parent
+     */
+    public static String stylesheet(String file) {
+        return stylesheets.computeIfAbsent(file, f -> ResourceRegistry.class.getResource(f).toExternalForm());
+    }
+
+    /**
+     * Loads the fonts, reads the stylesheet and the canton geometry in parallel in the background.
+     * Resources loaded already are skipped, a resource that fails is logged and left for the controls to load.
+     *
+     * @return completes once everything is loaded
+     */
+    public static CompletableFuture<Void> warmUp() {
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (String font : FONTS) {
+            tasks.add(CompletableFuture.runAsync(() -> loadFonts(font), WARM_UP));
+        }
+        tasks.add(CompletableFuture.runAsync(() -> readStylesheet(STYLESHEET), WARM_UP));
+        tasks.add(CompletableFuture.runAsync(() -> {
+            try {
+                CantonGeometry.shared();
+            } catch (IOException e) {
+                LOGGER.log(System.Logger.Level.WARNING, "canton geometry not warmed up", e);
+            }
+        }, WARM_UP));
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        LOGGER.log(System.Logger.Level.WARNING, "warm up failed", error);
+                    }
+                });
+    }
+
+    private static Font loadFont(String path) {
+        try (InputStream in = ResourceRegistry.class.getResourceAsStream(path)) {
+            return in == null ? null : Font.loadFont(in, 0);
+        } catch (IOException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "font " + path + " not loaded", e);
+            return null;
+        }
+    }
+
+    // css is parsed by JavaFX when it is first applied, reading it brings the file out of the jar at least
+    private static void readStylesheet(String file) {
+        try (InputStream in = new URL(stylesheet(file)).openStream()) {
+            in.readAllBytes();
+        } catch (IOException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "stylesheet " + file + " not read", e);
+        }
+    }
+}
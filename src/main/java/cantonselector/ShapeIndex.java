@@ -0,0 +1,219 @@
+package cantonselector;
+
+import java.util.Arrays;
+
+/**
+ * Finds the shape under a point. The outlines are flattened to polygons once, a uniform grid over
+ * their bounding boxes narrows a lookup down to a few candidates and an exact point in polygon
+ * test decides between them.
+ * <p>
+ * Instances are immutable and can be used from any thread.
+ */
+public final class ShapeIndex {
+    // segments a cubic curve is split into when flattening
+    private static final int CURVE_SEGMENTS = 8;
+    private static final int MAX_CELLS_PER_SIDE = 64;
+
+    // per shape: edges as x0, y0, x1, y1 and the bounding box
+    private final float[][] edges;
+    private final float[] bounds;
+
+    private final float originX;
+    private final float originY;
+    private final float cellWidth;
+    private final float cellHeight;
+    private final int columns;
+    private final int rows;
+    // shape indices of each cell, ordered by shape index
+    private final int[][] cells;
+
+    public ShapeIndex(PathGeometry... shapes) {
+        edges = new float[shapes.length][];
+        bounds = new float[shapes.length * 4];
+
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < shapes.length; i++) {
+            edges[i] = flatten(shapes[i]);
+            bounds[i * 4] = shapes[i].getMinX();
+            bounds[i * 4 + 1] = shapes[i].getMinY();
+            bounds[i * 4 + 2] = shapes[i].getMaxX();
+            bounds[i * 4 + 3] = shapes[i].getMaxY();
+            minX = Math.min(minX, shapes[i].getMinX());
+            minY = Math.min(minY, shapes[i].getMinY());
+            maxX = Math.max(maxX, shapes[i].getMaxX());
+            maxY = Math.max(maxY, shapes[i].getMaxY());
+        }
+        if (shapes.length == 0) {
+            minX = minY = 0;
+            maxX = maxY = 1;
+        }
+
+        originX = minX;
+        originY = minY;
+        columns = Math.max(1, Math.min(MAX_CELLS_PER_SIDE, (int) Math.sqrt(shapes.length) * 8));
+        rows = columns;
+        cellWidth = Math.max((maxX - minX) / columns, Float.MIN_NORMAL);
+        cellHeight = Math.max((maxY - minY) / rows, Float.MIN_NORMAL);
+
+        int[] cellSizes = new int[columns * rows];
+        for (int i = 0; i < shapes.length; i++) {
+            for (int row = row(bounds[i * 4 + 1]); row <= row(bounds[i * 4 + 3]); row++) {
+                for (int column = column(bounds[i * 4]); column <= column(bounds[i * 4 + 2]); column++) {
+                    cellSizes[row * columns + column]++;
+                }
+            }
+        }
+        cells = new int[columns * rows][];
+        for (int cell = 0; cell < cells.length; cell++) {
+            cells[cell] = new int[cellSizes[cell]];
+        }
+        Arrays.fill(cellSizes, 0);
+        for (int i = 0; i < shapes.length; i++) {
+            for (int row = row(bounds[i * 4 + 1]); row <= row(bounds[i * 4 + 3]); row++) {
+                for (int column = column(bounds[i * 4]); column <= column(bounds[i * 4 + 2]); column++) {
+                    int cell = row * columns + column;
+                    cells[cell][cellSizes[cell]++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the index of the first shape containing the point, or -1 if there is none
+     */
+    public int find(double x, double y) {
+        if (x < originX || y < originY) {
+            return -1;
+        }
+        int column = (int) ((x - originX) / cellWidth);
+        int row = (int) ((y - originY) / cellHeight);
+        if (column > columns || row > rows) {
+            return -1;
+        }
+        // the maximum edge belongs to the last cell
+        int[] candidates = cells[Math.min(row, rows - 1) * columns + Math.min(column, columns - 1)];
+        for (int shape : candidates) {
+            if (x >= bounds[shape * 4] && y >= bounds[shape * 4 + 1]
+                    && x <= bounds[shape * 4 + 2] && y <= bounds[shape * 4 + 3]
+                    && contains(edges[shape], x, y)) {
+                return shape;
+            }
+        }
+        return -1;
+    }
+
+    public int size() {
+        return edges.length;
+    }
+
+    float[] edges(int shape) {
+        return edges[shape];
+    }
+
+    float[] bounds(int shape) {
+        return Arrays.copyOfRange(bounds, shape * 4, shape * 4 + 4);
+    }
+
+    // even-odd rule, the same as non-zero for the map's simple outlines
+    private static boolean contains(float[] edges, double x, double y) {
+        boolean inside = false;
+        for (int i = 0; i < edges.length; i += 4) {
+            float y0 = edges[i + 1];
+            float y1 = edges[i + 3];
+            if ((y0 > y) != (y1 > y)) {
+                float x0 = edges[i];
+                float x1 = edges[i + 2];
+                if (x < x0 + (y - y0) * (x1 - x0) / (y1 - y0)) {
+                    inside = !inside;
+                }
+            }
+        }
+        return inside;
+    }
+
+    private int column(float x) {
+        return Math.min(columns - 1, (int) ((x - originX) / cellWidth));
+    }
+
+    private int row(float y) {
+        return Math.min(rows - 1, (int) ((y - originY) / cellHeight));
+    }
+
+    /**
+     * Flattens the outline to closed polygons, returned as a list of edges (x0, y0, x1, y1).
+     * Every subpath is closed, as a fill would close it.
+     */
+    static float[] flatten(PathGeometry shape) {
+        float[] result = new float[64];
+        int size = 0;
+        float x = 0;
+        float y = 0;
+        float startX = 0;
+        float startY = 0;
+        int c = 0;
+        for (int i = 0; i < shape.getCommandCount(); i++) {
+            byte command = shape.getCommand(i);
+            if (command == PathGeometry.MOVE_TO || command == PathGeometry.CLOSE) {
+                if (x != startX || y != startY) {
+                    result = grow(result, size + 4);
+                    size = putEdge(result, size, x, y, startX, startY);
+                }
+                if (command == PathGeometry.MOVE_TO) {
+                    startX = shape.getCoord(c);
+                    startY = shape.getCoord(c + 1);
+                }
+                x = startX;
+                y = startY;
+            } else if (command == PathGeometry.LINE_TO) {
+                float toX = shape.getCoord(c);
+                float toY = shape.getCoord(c + 1);
+                result = grow(result, size + 4);
+                size = putEdge(result, size, x, y, toX, toY);
+                x = toX;
+                y = toY;
+            } else {
+                float x1 = shape.getCoord(c);
+                float y1 = shape.getCoord(c + 1);
+                float x2 = shape.getCoord(c + 2);
+                float y2 = shape.getCoord(c + 3);
+                float x3 = shape.getCoord(c + 4);
+                float y3 = shape.getCoord(c + 5);
+                result = grow(result, size + 4 * CURVE_SEGMENTS);
+                float fromX = x;
+                float fromY = y;
+                for (int s = 1; s <= CURVE_SEGMENTS; s++) {
+                    float t = (float) s / CURVE_SEGMENTS;
+                    float u = 1 - t;
+                    float toX = u * u * u * x + 3 * u * u * t * x1 + 3 * u * t * t * x2 + t * t * t * x3;
+                    float toY = u * u * u * y + 3 * u * u * t * y1 + 3 * u * t * t * y2 + t * t * t * y3;
+                    size = putEdge(result, size, fromX, fromY, toX, toY);
+                    fromX = toX;
+                    fromY = toY;
+                }
+                x = x3;
+                y = y3;
+            }
+            c += PathGeometry.coordCount(command);
+        }
+        if (x != startX || y != startY) {
+            result = grow(result, size + 4);
+            size = putEdge(result, size, x, y, startX, startY);
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static float[] grow(float[] array, int minimumSize) {
+        return minimumSize <= array.length ? array : Arrays.copyOf(array, Math.max(minimumSize, array.length * 2));
+    }
+
+    private static int putEdge(float[] edges, int size, float x0, float y0, float x1, float y1) {
+        edges[size] = x0;
+        edges[size + 1] = y0;
+        edges[size + 2] = x1;
+        edges[size + 3] = y1;
+        return size + 4;
+    }
+}
@@ -0,0 +1,171 @@
+package cantonselector;
+
+import java.util.Arrays;
+
+/**
+ * Collects the points of one subpath after the other and simplifies each subpath
+ * with the Douglas-Peucker algorithm when it is ended.
+ */
+final class SimplifiedPathBuilder {
+    private final double tolerance;
+
+    private float[] points = new float[256];
+    private int pointCount;
+    private boolean[] keep = new boolean[128];
+    private int[] stack = new int[256];
+
+    private byte[] commands = new byte[64];
+    private int commandCount;
+    private float[] coords = new float[256];
+    private int coordCount;
+
+    SimplifiedPathBuilder(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    void add(float x, float y) {
+        if (pointCount * 2 + 2 > points.length) {
+            points = Arrays.copyOf(points, points.length * 2);
+        }
+        points[pointCount * 2] = x;
+        points[pointCount * 2 + 1] = y;
+        pointCount++;
+    }
+
+    boolean isEmpty() {
+        return pointCount == 0;
+    }
+
+    void endSubpath(boolean closed) {
+        int count = pointCount;
+        pointCount = 0;
+        if (count < 2 || isSmallerThanTolerance(count)) {
+            return;
+        }
+        if (keep.length < count) {
+            keep = new boolean[count * 2];
+        }
+        Arrays.fill(keep, 0, count, false);
+        keep[0] = true;
+        keep[count - 1] = true;
+        if (closed) {
+            // a ring is split at the point farthest from its start, otherwise the first and last point coincide
+            int farthest = farthestFrom(0, count);
+            keep[farthest] = true;
+            simplify(0, farthest);
+            simplify(farthest, count - 1);
+        } else {
+            simplify(0, count - 1);
+        }
+
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) {
+                addCommand(kept == 0 ? PathGeometry.MOVE_TO : PathGeometry.LINE_TO);
+                addCoord(points[i * 2]);
+                addCoord(points[i * 2 + 1]);
+                kept++;
+            }
+        }
+        if (closed) {
+            addCommand(PathGeometry.CLOSE);
+        }
+    }
+
+    PathGeometry build() {
+        return new PathGeometry(Arrays.copyOf(commands, commandCount), Arrays.copyOf(coords, coordCount));
+    }
+
+    private boolean isSmallerThanTolerance(int count) {
+        float minX = points[0];
+        float maxX = points[0];
+        float minY = points[1];
+        float maxY = points[1];
+        for (int i = 1; i < count; i++) {
+            minX = Math.min(minX, points[i * 2]);
+            maxX = Math.max(maxX, points[i * 2]);
+            minY = Math.min(minY, points[i * 2 + 1]);
+            maxY = Math.max(maxY, points[i * 2 + 1]);
+        }
+        return maxX - minX < tolerance && maxY - minY < tolerance;
+    }
+
+    private int farthestFrom(int index, int count) {
+        int farthest = index;
+        double max = -1;
+        for (int i = 0; i < count; i++) {
+            double dx = points[i * 2] - points[index * 2];
+            double dy = points[i * 2 + 1] - points[index * 2 + 1];
+            double distance = dx * dx + dy * dy;
+            if (distance > max) {
+                max = distance;
+                farthest = i;
+            }
+        }
+        return farthest;
+    }
+
+    private void simplify(int first, int last) {
+        int top = 0;
+        push(top++, first, last);
+        while (top > 0) {
+            top--;
+            int from = stack[top * 2];
+            int to = stack[top * 2 + 1];
+
+            double ax = points[from * 2];
+            double ay = points[from * 2 + 1];
+            double dx = points[to * 2] - ax;
+            double dy = points[to * 2 + 1] - ay;
+            double lengthSquared = dx * dx + dy * dy;
+
+            int farthest = -1;
+            double max = tolerance * tolerance;
+            for (int i = from + 1; i < to; i++) {
+                double distance = distanceSquared(points[i * 2] - ax, points[i * 2 + 1] - ay, dx, dy, lengthSquared);
+                if (distance > max) {
+                    max = distance;
+                    farthest = i;
+                }
+            }
+            if (farthest >= 0) {
+                keep[farthest] = true;
+                push(top++, from, farthest);
+                push(top++, farthest, to);
+            }
+        }
+    }
+
+    // squared distance of the point (px, py) from the segment (0, 0) - (dx, dy)
+    private static double distanceSquared(double px, double py, double dx, double dy, double lengthSquared) {
+        if (lengthSquared == 0) {
+            return px * px + py * py;
+        }
+        double t = Math.max(0, Math.min(1, (px * dx + py * dy) / lengthSquared));
+        double ex = px - t * dx;
+        double ey = py - t * dy;
+        return ex * ex + ey * ey;
+    }
+
+    private void push(int index, int from, int to) {
+        if (index * 2 + 2 > stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[index * 2] = from;
+        stack[index * 2 + 1] = to;
+    }
+
+    private void addCommand(byte command) {
+        if (commandCount == commands.length) {
+            commands = Arrays.copyOf(commands, commandCount * 2);
+        }
+        commands[commandCount++] = command;
+    }
+
+    private void addCoord(float value) {
+        if (coordCount == coords.length) {
+            coords = Arrays.copyOf(coords, coordCount * 2);
+        }
+        coords[coordCount++] = value;
+    }
+}
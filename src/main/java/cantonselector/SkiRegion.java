@@ -7,10 +7,12 @@ import java.util.List;
 
 public class SkiRegion {
     private final RegionName regionName;
+    private final List<Canton> cantons;
     private final List<SVGPath> cantonSvgs;
 
-    public SkiRegion(RegionName regionName, List<SVGPath> cantonSvgs) {
+    public SkiRegion(RegionName regionName, List<Canton> cantons, List<SVGPath> cantonSvgs) {
         this.regionName = regionName;
+        this.cantons = cantons;
         this.cantonSvgs = cantonSvgs;
     }
 
@@ -18,6 +20,10 @@ public class SkiRegion {
         return regionName;
     }
 
+    public List<Canton> getCantons() {
+        return cantons;
+    }
+
     public List<SVGPath> getCantonSvgs() {
         return cantonSvgs;
     }
@@ -71,12 +77,17 @@ public class SkiRegion {
         private final String abbreviation;
         private final String longName;
         private final String name;
+        private final List<Canton> cantons;
 
-        public RegionName(String abbreviation, String longName) {
+        /**
+         * @param cantons the cantons the region is made of, none if the name alone is meant
+         */
+        public RegionName(String abbreviation, String longName, Canton... cantons) {
             this.abbreviation = abbreviation;
             this.longName = longName;
             //TODO 2) change to abbreviation if that's needed
             this.name = longName;
+            this.cantons = List.of(cantons);
         }
 
         public String getAbbreviation() {
@@ -91,15 +102,19 @@ public class SkiRegion {
             return name;
         }
 
+        public List<Canton> getCantons() {
+            return cantons;
+        }
+
         public static List<RegionName> getRegions() {
             ArrayList<RegionName> regions = new ArrayList<>();
 
-            regions.add(new RegionName("WW", "Waadt und Wallis"));
-            regions.add(new RegionName("BE", "Berner Oberland"));
-            regions.add(new RegionName("ZS", "Zentralschweiz"));
-            regions.add(new RegionName("GR", "Graubünden"));
-            regions.add(new RegionName("OS", "Ostschweiz"));
-            regions.add(new RegionName("TI", "Tessin"));
+            regions.add(new RegionName("WW", "Waadt und Wallis", Canton.VD, Canton.VS));
+            regions.add(new RegionName("BE", "Berner Oberland", Canton.BE));
+            regions.add(new RegionName("ZS", "Zentralschweiz", Canton.LU, Canton.UR, Canton.SZ, Canton.OW, Canton.NW, Canton.ZG));
+            regions.add(new RegionName("GR", "Graubünden", Canton.GR));
+            regions.add(new RegionName("OS", "Ostschweiz", Canton.SG, Canton.GL));
+            regions.add(new RegionName("TI", "Tessin", Canton.TI));
 
             return regions;
         }
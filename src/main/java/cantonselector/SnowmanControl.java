@@ -10,7 +10,6 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.scene.shape.Ellipse;
 import javafx.scene.shape.Line;
-import javafx.scene.text.Font;
 import javafx.scene.transform.Transform;
 
 import java.util.List;
@@ -39,6 +38,9 @@ public class SnowmanControl extends Region {
 
     private static final double MAXIMUM_WIDTH = 800;
 
+    // height of the arms of a sad snowman
+    private static final double ARM_Y = 41;
+
     //all parts of the snowmans body
     private Circle buttonDown;
     private Circle buttonMiddle;
@@ -70,20 +72,33 @@ public class SnowmanControl extends Region {
     // fuer Resizing benoetigt
     private Pane drawingPane;
 
+    // moves mouth and arms between sad (0) and happy (1)
+    private TweenEngine.DoubleTween happiness;
+
     public SnowmanControl() {
+        StartupProbe probe = StartupProbe.start(this);
         initializeSelf();
+        probe.mark("initializeSelf");
         initializeParts();
+        probe.mark("initializeParts");
         initializeDrawingPane();
+        probe.mark("initializeDrawingPane");
         initializeAnimations();
+        probe.mark("initializeAnimations");
         layoutParts();
+        probe.mark("layoutParts");
         setupEventHandlers();
+        probe.mark("setupEventHandlers");
         setupValueChangeListeners();
+        probe.mark("setupValueChangeListeners");
         setupBindings();
+        probe.mark("setupBindings");
+        probe.finish();
     }
 
     private void initializeSelf() {
-        loadFonts("/fonts/Lato/Lato-Lig.ttf", "/fonts/Lato/Lato-Reg.ttf");
-        addStylesheetFiles("style.css");
+        ResourceRegistry.loadFonts(ResourceRegistry.FONTS);
+        getStylesheets().add(ResourceRegistry.stylesheet(ResourceRegistry.STYLESHEET));
 
         getStyleClass().add("snowman");
     }
@@ -126,10 +141,10 @@ public class SnowmanControl extends Region {
         mouth2 = new Line(startX + 5, startY, startX + 10, startY);
         mouth2.getStyleClass().add("button");
 
-        armLeft = new Line(1, 41, 15, 41);
+        armLeft = new Line(1, ARM_Y, 15, ARM_Y);
         armLeft.getStyleClass().add("button");
 
-        armRight = new Line(50, 41, 65, 41);
+        armRight = new Line(50, ARM_Y, 65, ARM_Y);
         armRight.getStyleClass().add("button");
     }
 
@@ -142,7 +157,12 @@ public class SnowmanControl extends Region {
     }
 
     private void initializeAnimations() {
-        //initialising animations in future
+        happiness = new TweenEngine.DoubleTween(300, 0) {
+            @Override
+            void show(double value) {
+                showHappiness(value);
+            }
+        };
     }
 
     private void layoutParts() {
@@ -212,31 +232,22 @@ public class SnowmanControl extends Region {
     }
 
     // Sammlung nuetzlicher Funktionen
-    private void loadFonts(String... font) {
-        for (String f : font) {
-            Font.loadFont(getClass().getResourceAsStream(f), 0);
-        }
+    private void switchHappiness(boolean isHappy) {
+        happiness.animateTo(isHappy ? 1 : 0);
     }
 
-    private void addStylesheetFiles(String... stylesheetFile) {
-        for (String file : stylesheetFile) {
-            String stylesheet = getClass().getResource(file).toExternalForm();
-            getStylesheets().add(stylesheet);
-        }
+    /**
+     * Shows the current value right away, without the transition.
+     */
+    void finishAnimations() {
+        happiness.jumpTo(getValue() ? 1 : 0);
     }
 
-    private void switchHappiness(boolean isHappy) {
-        if (isHappy) {
-            mouth1.setRotate(15);
-            mouth2.setRotate(-15);
-            armLeft.setStartY(armLeft.getStartY() - 15);
-            armRight.setEndY(armRight.getEndY() - 15);
-        } else {
-            mouth1.setRotate(0);
-            mouth2.setRotate(0);
-            armLeft.setStartY(armLeft.getStartY() + 15);
-            armRight.setEndY(armRight.getEndY() + 15);
-        }
+    private void showHappiness(double happiness) {
+        mouth1.setRotate(15 * happiness);
+        mouth2.setRotate(-15 * happiness);
+        armLeft.setStartY(ARM_Y - 15 * happiness);
+        armRight.setEndY(ARM_Y - 15 * happiness);
     }
 
     private String colorToCss(final Color color) {
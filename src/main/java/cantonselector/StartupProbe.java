@@ -0,0 +1,124 @@
+package cantonselector;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Times the constructor phases of the controls and counts the bytes they allocate.
+ * Off by default, switched on with {@link #setEnabled(boolean)} or the system property
+ * {@value #ENABLED_PROPERTY}; while off a control pays for a single check.
+ * <p>
+ * Every finished report is logged as one line to the {@link System.Logger} {@value #LOGGER_NAME}
+ * and kept for {@link #getReports()}, the last {@value #MAX_REPORTS} of them.
+ */
+public final class StartupProbe {
+    public static final String ENABLED_PROPERTY = "cantonselector.startupProbe";
+    public static final String LOGGER_NAME = "cantonselector.startup";
+    static final int MAX_REPORTS = 256;
+
+    private static final StartupProbe DISABLED = new StartupProbe(null);
+    private static final System.Logger LOGGER = System.getLogger(LOGGER_NAME);
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+    private static final Deque<StartupReport> reports = new ArrayDeque<>();
+
+    private final Object control;
+    private final List<StartupReport.Phase> phases;
+    private long lastNanos;
+    private long lastBytes;
+
+    private StartupProbe(Object control) {
+        this.control = control;
+        phases = control == null ? null : new ArrayList<>(12);
+        if (control != null) {
+            lastBytes = allocatedBytes();
+            lastNanos = System.nanoTime();
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        StartupProbe.enabled = enabled;
+    }
+
+    /**
+     * @return the reports of the controls constructed while the probe was enabled, the oldest first
+     */
+    public static List<StartupReport> getReports() {
+        synchronized (reports) {
+            return new ArrayList<>(reports);
+        }
+    }
+
+    public static void clearReports() {
+        synchronized (reports) {
+            reports.clear();
+        }
+    }
+
+    /**
+     * Starts timing the construction of the control, call it first thing in the constructor.
+     */
+    static StartupProbe start(Object control) {
+        return enabled ? new StartupProbe(control) : DISABLED;
+    }
+
+    /**
+     * Ends the current phase, the next one starts right away.
+     */
+    void mark(String phase) {
+        if (control == null) {
+            return;
+        }
+        long nanos = System.nanoTime();
+        long bytes = allocatedBytes();
+        phases.add(new StartupReport.Phase(phase, nanos - lastNanos, bytes < 0 ? -1 : bytes - lastBytes));
+        // the bookkeeping above is not counted to the next phase
+        lastBytes = allocatedBytes();
+        lastNanos = System.nanoTime();
+    }
+
+    /**
+     * Ends the construction, the report is logged and kept.
+     */
+    void finish() {
+        if (control == null) {
+            return;
+        }
+        StartupReport report = new StartupReport(control.getClass().getSimpleName(), System.identityHashCode(control), phases);
+        synchronized (reports) {
+            if (reports.size() == MAX_REPORTS) {
+                reports.removeFirst();
+            }
+            reports.addLast(report);
+        }
+        LOGGER.log(System.Logger.Level.INFO, report::toString);
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    // null if the JVM does not count the bytes allocated per thread
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+                if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                    return threads;
+                }
+            }
+        } catch (LinkageError | UnsupportedOperationException e) {
+            // an expected case, the reports show -1 bytes
+            LOGGER.log(System.Logger.Level.DEBUG, "allocated bytes not counted", e);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,119 @@
+package cantonselector;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * How long the construction of one control took and how much it allocated, phase by phase.
+ * Recorded by the {@link StartupProbe} while it is enabled.
+ */
+public final class StartupReport {
+    /**
+     * One step of the constructor, like {@code initializeSelf}.
+     */
+    public static final class Phase {
+        private final String name;
+        private final long nanos;
+        private final long allocatedBytes;
+
+        Phase(String name, long nanos, long allocatedBytes) {
+            this.name = name;
+            this.nanos = nanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return the bytes the constructing thread allocated during the phase, -1 if the JVM cannot tell
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+    }
+
+    private final String control;
+    private final int instance;
+    private final List<Phase> phases;
+
+    StartupReport(String control, int instance, List<Phase> phases) {
+        this.control = control;
+        this.instance = instance;
+        this.phases = Collections.unmodifiableList(phases);
+    }
+
+    /**
+     * @return the simple class name of the control
+     */
+    public String getControl() {
+        return control;
+    }
+
+    /**
+     * @return the identity hash code of the control, telling instances of the same class apart
+     */
+    public int getInstance() {
+        return instance;
+    }
+
+    public List<Phase> getPhases() {
+        return phases;
+    }
+
+    /**
+     * @return the phase with the name, null if there is none
+     */
+    public Phase getPhase(String name) {
+        for (Phase phase : phases) {
+            if (phase.name.equals(name)) {
+                return phase;
+            }
+        }
+        return null;
+    }
+
+    public long getTotalNanos() {
+        long total = 0;
+        for (Phase phase : phases) {
+            total += phase.nanos;
+        }
+        return total;
+    }
+
+    /**
+     * @return the bytes allocated by all phases, -1 if the JVM cannot tell
+     */
+    public long getTotalAllocatedBytes() {
+        long total = 0;
+        for (Phase phase : phases) {
+            if (phase.allocatedBytes < 0) {
+                return -1;
+            }
+            total += phase.allocatedBytes;
+        }
+        return total;
+    }
+
+    /**
+     * @return the report as one line of key=value pairs, times in milliseconds
+     */
+    @Override
+    public String toString() {
+        StringBuilder line = new StringBuilder(64 + phases.size() * 48);
+        line.append("startup control=").append(control)
+                .append(" instance=").append(Integer.toHexString(instance))
+                .append(String.format(Locale.ROOT, " total_ms=%.3f total_bytes=%d", getTotalNanos() / 1e6, getTotalAllocatedBytes()));
+        for (Phase phase : phases) {
+            line.append(String.format(Locale.ROOT, " %s_ms=%.3f %s_bytes=%d",
+                    phase.name, phase.nanos / 1e6, phase.name, phase.allocatedBytes));
+        }
+        return line.toString();
+    }
+}
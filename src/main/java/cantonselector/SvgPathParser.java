@@ -0,0 +1,210 @@
+package cantonselector;
+
+import java.util.Arrays;
+
+/**
+ * Parses svg path data into a {@link PathGeometry}.
+ * Relative commands are resolved, h/v become lines and quadratic curves become cubic ones.
+ * Elliptical arcs are not used by the map and therefore not supported.
+ */
+final class SvgPathParser {
+    private final String data;
+    private int pos;
+
+    private byte[] commands = new byte[64];
+    private int commandCount;
+    private float[] coords = new float[256];
+    private int coordCount;
+
+    private SvgPathParser(String data) {
+        this.data = data;
+    }
+
+    static PathGeometry parse(String data) {
+        return new SvgPathParser(data).parse();
+    }
+
+    private PathGeometry parse() {
+        double x = 0;
+        double y = 0;
+        double startX = 0;
+        double startY = 0;
+        // reflected control point for s/S and t/T
+        double ctrlX = 0;
+        double ctrlY = 0;
+        char previous = ' ';
+
+        char command = ' ';
+        while (skipSeparators()) {
+            char c = data.charAt(pos);
+            boolean letter = Character.isLetter(c) && c != 'e' && c != 'E';
+            if (letter) {
+                command = c;
+                pos++;
+            } else if (command == ' ') {
+                throw new IllegalArgumentException("path data must start with a command at index " + pos);
+            }
+            boolean relative = Character.isLowerCase(command);
+            double ox = relative ? x : 0;
+            double oy = relative ? y : 0;
+
+            switch (Character.toUpperCase(command)) {
+                case 'M':
+                    x = ox + nextNumber();
+                    y = oy + nextNumber();
+                    startX = x;
+                    startY = y;
+                    add(PathGeometry.MOVE_TO, x, y);
+                    // further coordinate pairs are implicit line commands
+                    command = relative ? 'l' : 'L';
+                    break;
+                case 'L':
+                    x = ox + nextNumber();
+                    y = oy + nextNumber();
+                    add(PathGeometry.LINE_TO, x, y);
+                    break;
+                case 'H':
+                    x = ox + nextNumber();
+                    add(PathGeometry.LINE_TO, x, y);
+                    break;
+                case 'V':
+                    y = oy + nextNumber();
+                    add(PathGeometry.LINE_TO, x, y);
+                    break;
+                case 'C': {
+                    double x1 = ox + nextNumber();
+                    double y1 = oy + nextNumber();
+                    ctrlX = ox + nextNumber();
+                    ctrlY = oy + nextNumber();
+                    x = ox + nextNumber();
+                    y = oy + nextNumber();
+                    add(x1, y1, ctrlX, ctrlY, x, y);
+                    break;
+                }
+                case 'S': {
+                    boolean smooth = previous == 'C' || previous == 'S';
+                    double x1 = smooth ? 2 * x - ctrlX : x;
+                    double y1 = smooth ? 2 * y - ctrlY : y;
+                    ctrlX = ox + nextNumber();
+                    ctrlY = oy + nextNumber();
+                    x = ox + nextNumber();
+                    y = oy + nextNumber();
+                    add(x1, y1, ctrlX, ctrlY, x, y);
+                    break;
+                }
+                case 'Q':
+                case 'T': {
+                    boolean smooth = previous == 'Q' || previous == 'T';
+                    double qx;
+                    double qy;
+                    if (Character.toUpperCase(command) == 'Q') {
+                        qx = ox + nextNumber();
+                        qy = oy + nextNumber();
+                    } else {
+                        qx = smooth ? 2 * x - ctrlX : x;
+                        qy = smooth ? 2 * y - ctrlY : y;
+                    }
+                    double endX = ox + nextNumber();
+                    double endY = oy + nextNumber();
+                    add(x + 2.0 / 3.0 * (qx - x), y + 2.0 / 3.0 * (qy - y),
+                            endX + 2.0 / 3.0 * (qx - endX), endY + 2.0 / 3.0 * (qy - endY),
+                            endX, endY);
+                    ctrlX = qx;
+                    ctrlY = qy;
+                    x = endX;
+                    y = endY;
+                    break;
+                }
+                case 'Z':
+                    // closepath takes no numbers, it would be repeated without consuming anything
+                    if (!letter) {
+                        throw new IllegalArgumentException("number after closepath at index " + pos);
+                    }
+                    addCommand(PathGeometry.CLOSE);
+                    x = startX;
+                    y = startY;
+                    break;
+                default:
+                    throw new IllegalArgumentException("unsupported path command '" + command + "' at index " + (pos - 1));
+            }
+            previous = Character.toUpperCase(command);
+        }
+        return new PathGeometry(Arrays.copyOf(commands, commandCount), Arrays.copyOf(coords, coordCount));
+    }
+
+    private boolean skipSeparators() {
+        while (pos < data.length()) {
+            char c = data.charAt(pos);
+            if (c != ' ' && c != ',' && c != '\n' && c != '\r' && c != '\t') {
+                return true;
+            }
+            pos++;
+        }
+        return false;
+    }
+
+    private double nextNumber() {
+        if (!skipSeparators()) {
+            throw new IllegalArgumentException("number expected at end of path data");
+        }
+        int start = pos;
+        if (data.charAt(pos) == '-' || data.charAt(pos) == '+') {
+            pos++;
+        }
+        boolean dot = false;
+        while (pos < data.length()) {
+            char c = data.charAt(pos);
+            if (c >= '0' && c <= '9') {
+                pos++;
+            } else if (c == '.' && !dot) {
+                dot = true;
+                pos++;
+            } else if ((c == 'e' || c == 'E') && pos > start) {
+                pos++;
+                if (pos < data.length() && (data.charAt(pos) == '-' || data.charAt(pos) == '+')) {
+                    pos++;
+                }
+                while (pos < data.length() && Character.isDigit(data.charAt(pos))) {
+                    pos++;
+                }
+                break;
+            } else {
+                break;
+            }
+        }
+        if (pos == start) {
+            throw new IllegalArgumentException("number expected at index " + start);
+        }
+        return Double.parseDouble(data.substring(start, pos));
+    }
+
+    private void add(byte command, double x, double y) {
+        addCommand(command);
+        addCoord(x);
+        addCoord(y);
+    }
+
+    private void add(double x1, double y1, double x2, double y2, double x, double y) {
+        addCommand(PathGeometry.CURVE_TO);
+        addCoord(x1);
+        addCoord(y1);
+        addCoord(x2);
+        addCoord(y2);
+        addCoord(x);
+        addCoord(y);
+    }
+
+    private void addCommand(byte command) {
+        if (commandCount == commands.length) {
+            commands = Arrays.copyOf(commands, commandCount * 2);
+        }
+        commands[commandCount++] = command;
+    }
+
+    private void addCoord(double value) {
+        if (coordCount == coords.length) {
+            coords = Arrays.copyOf(coords, coordCount * 2);
+        }
+        coords[coordCount++] = (float) value;
+    }
+}
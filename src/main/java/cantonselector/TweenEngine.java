@@ -0,0 +1,257 @@
+package cantonselector;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs the transitions of all controls of the process on a single {@link AnimationTimer}.
+ * A tween is created once per animated thing and reused for every transition of it,
+ * stepping the running tweens does not allocate. The timer only runs while a tween does.
+ * <p>
+ * Like the controls, the engine is only used on the FX Application Thread.
+ */
+final class TweenEngine {
+    private static final TweenEngine SHARED = new TweenEngine();
+
+    private Tween[] running = new Tween[32];
+    private int runningCount;
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            step(now);
+        }
+    };
+
+    private TweenEngine() {
+    }
+
+    static TweenEngine shared() {
+        return SHARED;
+    }
+
+    private void start(Tween tween) {
+        if (tween.index < 0) {
+            if (runningCount == running.length) {
+                running = Arrays.copyOf(running, runningCount * 2);
+            }
+            tween.index = runningCount;
+            running[runningCount++] = tween;
+            if (runningCount == 1) {
+                timer.start();
+            }
+        }
+    }
+
+    private void stop(Tween tween) {
+        int index = tween.index;
+        if (index < 0) {
+            return;
+        }
+        // the last one takes the free place
+        Tween last = running[--runningCount];
+        running[index] = last;
+        last.index = index;
+        running[runningCount] = null;
+        tween.index = -1;
+        if (runningCount == 0) {
+            timer.stop();
+        }
+    }
+
+    private void step(long now) {
+        // backwards, so a finished tween is replaced by one already stepped
+        for (int i = runningCount - 1; i >= 0; i--) {
+            Tween tween = running[i];
+            if (tween.startNanos < 0) {
+                tween.startNanos = now;
+            }
+            double fraction = (double) (now - tween.startNanos) / tween.durationNanos;
+            if (fraction >= 1) {
+                stop(tween);
+                tween.apply(1);
+            } else {
+                // ease in and out
+                tween.apply(fraction * fraction * (3 - 2 * fraction));
+            }
+        }
+    }
+
+    /**
+     * A transition of one thing, restarting it continues from wherever the previous transition got to.
+     */
+    abstract static class Tween {
+        private final long durationNanos;
+        // the time of the first frame, taken from the timer
+        private long startNanos;
+        private int index = -1;
+
+        Tween(long durationMillis) {
+            durationNanos = Math.max(1, durationMillis * 1_000_000);
+        }
+
+        final void play() {
+            startNanos = -1;
+            shared().start(this);
+        }
+
+        final void cancel() {
+            shared().stop(this);
+        }
+
+        final boolean isRunning() {
+            return index >= 0;
+        }
+
+        /**
+         * @param fraction how far the transition got, from 0 to 1
+         */
+        abstract void apply(double fraction);
+    }
+
+    /**
+     * Fades a color, the frames only pick one of the steps of the transition. The steps are interpolated once
+     * and shared by all color tweens making the same transition, so transitions repeated over and over,
+     * like hover and selection, do not allocate.
+     */
+    abstract static class ColorTween extends Tween {
+        private static final int STEPS = 16;
+        // recently used transitions, a transition started halfway through another one is a new one
+        private static final int CACHED_TRANSITIONS = 64;
+        private static final Map<Transition, Color[]> cachedSteps = new LinkedHashMap<>(CACHED_TRANSITIONS * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Transition, Color[]> eldest) {
+                return size() > CACHED_TRANSITIONS;
+            }
+        };
+        private static final Transition probe = new Transition();
+
+        // shared, never written to
+        private Color[] steps;
+        private Color current;
+        private int shownStep;
+
+        ColorTween(long durationMillis) {
+            super(durationMillis);
+        }
+
+        /**
+         * Fades from the color currently shown to the target, shows the target right away if nothing was shown yet.
+         */
+        final void animateTo(Color target) {
+            if (target.equals(isRunning() ? steps[STEPS - 1] : current)) {
+                return;
+            }
+            if (current == null) {
+                current = target;
+                show(target);
+                return;
+            }
+            steps = steps(current, target);
+            shownStep = 0;
+            play();
+        }
+
+        /**
+         * Shows the target right away, stopping a running transition.
+         */
+        final void jumpTo(Color target) {
+            cancel();
+            current = target;
+            show(target);
+        }
+
+        @Override
+        final void apply(double fraction) {
+            int step = (int) Math.round(fraction * (STEPS - 1));
+            if (step != shownStep) {
+                shownStep = step;
+                current = steps[step];
+                show(current);
+            }
+        }
+
+        abstract void show(Color color);
+
+        private static Color[] steps(Color from, Color to) {
+            probe.set(from, to);
+            Color[] result = cachedSteps.get(probe);
+            if (result == null) {
+                result = new Color[STEPS];
+                for (int i = 0; i < STEPS; i++) {
+                    result[i] = from.interpolate(to, (double) i / (STEPS - 1));
+                }
+                Transition transition = new Transition();
+                transition.set(from, to);
+                cachedSteps.put(transition, result);
+            }
+            return result;
+        }
+
+        private static final class Transition {
+            private Color from;
+            private Color to;
+
+            void set(Color from, Color to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                if (!(o instanceof Transition)) {
+                    return false;
+                }
+                Transition other = (Transition) o;
+                return from.equals(other.from) && to.equals(other.to);
+            }
+
+            @Override
+            public int hashCode() {
+                return 31 * from.hashCode() + to.hashCode();
+            }
+        }
+    }
+
+    /**
+     * Moves a number, like an opacity or a scale.
+     */
+    abstract static class DoubleTween extends Tween {
+        private double from;
+        private double to;
+        private double current;
+
+        DoubleTween(long durationMillis, double initial) {
+            super(durationMillis);
+            current = initial;
+            to = initial;
+        }
+
+        final void animateTo(double target) {
+            if (target == to && (isRunning() || current == target)) {
+                return;
+            }
+            from = current;
+            to = target;
+            play();
+        }
+
+        final void jumpTo(double target) {
+            cancel();
+            from = to = current = target;
+            show(target);
+        }
+
+        @Override
+        final void apply(double fraction) {
+            current = from + (to - from) * fraction;
+            show(current);
+        }
+
+        abstract void show(double value);
+    }
+}
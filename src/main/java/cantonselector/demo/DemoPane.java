@@ -1,5 +1,6 @@
 package cantonselector.demo;
 
+import cantonselector.RegionPartition;
 import cantonselector.RegionSnowmanDashboard;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
@@ -30,7 +31,9 @@ public class DemoPane extends BorderPane {
 
     private void initializeControls() {
         setPadding(new Insets(10));
-        regionSnowmanDashboard = new RegionSnowmanDashboard();
+        regionSnowmanDashboard = new RegionSnowmanDashboard(true);
+        // the combo box lists the ski regions
+        regionSnowmanDashboard.setPartition(RegionPartition.SKI_REGIONS);
 
         slider = new Slider();
         slider.setShowTickLabels(true);
@@ -75,5 +78,7 @@ public class DemoPane extends BorderPane {
         regionSnowmanDashboard.hoverColorProperty().bindBidirectional(pm.hoverColorProperty());
         regionSnowmanDashboard.selectColorProperty().bindBidirectional(pm.selectColorProperty());
         regionSnowmanDashboard.selectedRegionProperty().bindBidirectional(pm.regionProperty());
+
+        cbRegion.disableProperty().bind(regionSnowmanDashboard.readyProperty().not());
     }
 }
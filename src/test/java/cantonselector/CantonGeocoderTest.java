@@ -0,0 +1,52 @@
+package cantonselector;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static cantonselector.SkiRegion.Canton;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The geocoder, which reads the shared pick buffer, finds the same canton as the outlines of the cantons.
+ */
+class CantonGeocoderTest {
+    private static final int POINTS = 200_000;
+
+    private static CantonGeometry geometry;
+    private static CantonGeocoder geocoder;
+    private static final double[] east = new double[POINTS];
+    private static final double[] north = new double[POINTS];
+
+    @BeforeAll
+    static void createGeocoder() throws IOException {
+        geometry = CantonGeometry.shared();
+        geocoder = new CantonGeocoder(geometry);
+        Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            east[i] = 2_485_000 + random.nextDouble() * 349_000;
+            north[i] = 1_075_000 + random.nextDouble() * 221_000;
+        }
+    }
+
+    @Test
+    void lookupAgreesWithCantonAt() {
+        CantonGeocoder.Calibration calibration = CantonGeocoder.Calibration.fromBounds(geometry);
+        for (int i = 0; i < POINTS; i++) {
+            Canton expected = geometry.cantonAt(calibration.mapX(east[i], north[i]), calibration.mapY(east[i], north[i]));
+            assertEquals(expected, geocoder.lookup(east[i], north[i]), "at " + east[i] + ", " + north[i]);
+        }
+    }
+
+    @Test
+    void lookupAllAgreesWithLookup() {
+        int[] expected = new int[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            expected[i] = geocoder.lookupOrdinal(east[i], north[i]);
+        }
+        assertArrayEquals(expected, geocoder.lookupAll(east, north));
+    }
+}
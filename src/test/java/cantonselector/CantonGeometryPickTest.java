@@ -0,0 +1,74 @@
+package cantonselector;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Shape;
+import java.io.IOException;
+import java.util.Random;
+
+import static cantonselector.SkiRegion.Canton;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The spatial index finds the same canton as testing the outline of every canton, as node picking does.
+ */
+class CantonGeometryPickTest {
+    private static final int POINTS = 100_000;
+    // the index flattens the curves of the outlines, so right at a border it may differ by this many map units
+    private static final double BORDER_TOLERANCE = 1;
+
+    @Test
+    void cantonAtAgreesWithTheOutlines() throws IOException {
+        CantonGeometry geometry = CantonGeometry.shared();
+        Shape[] outlines = new Shape[Canton.values().length];
+        for (Canton canton : Canton.values()) {
+            outlines[canton.ordinal()] = geometry.outline(canton).toShape();
+        }
+
+        Random random = new Random(42);
+        int hits = 0;
+        for (int i = 0; i < POINTS; i++) {
+            double x = random.nextDouble() * RegionSelectorControl.ARTBOARD_WIDTH;
+            double y = random.nextDouble() * RegionSelectorControl.ARTBOARD_HEIGHT;
+            Canton found = geometry.cantonAt(x, y);
+            boolean agrees = found != null ? outlines[found.ordinal()].contains(x, y) : containingCanton(outlines, x, y) < 0;
+            if (found != null) {
+                hits++;
+            }
+            if (!agrees) {
+                assertTrue(nearBorder(outlines, x, y), String.format("%s found at %.3f, %.3f away from any border", found, x, y));
+            }
+        }
+        // about half of the map is Switzerland
+        assertTrue(hits > POINTS / 3, hits + " hits");
+    }
+
+    @Test
+    void nothingOutsideTheMap() throws IOException {
+        CantonGeometry geometry = CantonGeometry.shared();
+        assertNull(geometry.cantonAt(-10, -10));
+        assertNull(geometry.cantonAt(RegionSelectorControl.ARTBOARD_WIDTH + 10, RegionSelectorControl.ARTBOARD_HEIGHT + 10));
+    }
+
+    private static int containingCanton(Shape[] outlines, double x, double y) {
+        for (int i = 0; i < outlines.length; i++) {
+            if (outlines[i].contains(x, y)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // some outline passes through the square around the point
+    private static boolean nearBorder(Shape[] outlines, double x, double y) {
+        double size = 2 * BORDER_TOLERANCE;
+        for (Shape outline : outlines) {
+            if (outline.intersects(x - BORDER_TOLERANCE, y - BORDER_TOLERANCE, size, size)
+                    && !outline.contains(x - BORDER_TOLERANCE, y - BORDER_TOLERANCE, size, size)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
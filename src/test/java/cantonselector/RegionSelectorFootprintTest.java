@@ -0,0 +1,73 @@
+package cantonselector;
+
+import javafx.application.Platform;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Since the canton geometry is shared, the first region selector pays for the map and every further one
+ * only for its own nodes, so the retained heap divided by the instance count has to shrink while the count grows.
+ * Needs a display, skipped without one.
+ */
+class RegionSelectorFootprintTest {
+    private static final int[] INSTANCE_COUNTS = {1, 10, 30};
+
+    private static boolean toolkitStarted;
+
+    @BeforeAll
+    static void startToolkit() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Platform.startup(started::countDown);
+        } catch (IllegalStateException e) {
+            // started by another test in the same JVM
+            started.countDown();
+        } catch (RuntimeException e) {
+            // no display
+            return;
+        }
+        started.await();
+        toolkitStarted = true;
+    }
+
+    @Test
+    void perInstanceHeapShrinksWithTheInstanceCount() throws Exception {
+        assumeTrue(toolkitStarted, "no JavaFX toolkit");
+        // keeps the controls reachable while the heap is measured
+        List<RegionSelectorControl> controls = new ArrayList<>();
+        long baseline = usedHeap();
+
+        double previousPerInstance = Double.MAX_VALUE;
+        for (int count : INSTANCE_COUNTS) {
+            CompletableFuture<Void> created = new CompletableFuture<>();
+            Platform.runLater(() -> {
+                while (controls.size() < count) {
+                    controls.add(new RegionSelectorControl());
+                }
+                created.complete(null);
+            });
+            created.get();
+            double perInstance = (double) (usedHeap() - baseline) / count;
+            assertTrue(perInstance < previousPerInstance, String.format(
+                    "%.1f KB per instance with %d instances, %.1f KB with fewer",
+                    perInstance / 1024, count, previousPerInstance / 1024));
+            previousPerInstance = perInstance;
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
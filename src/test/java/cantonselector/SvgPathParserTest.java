@@ -0,0 +1,35 @@
+package cantonselector;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class SvgPathParserTest {
+    // a number after a closepath used to repeat the closepath until the heap ran out, a regression fails the run one way or the other
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Test
+    void numberAfterClosepathIsRejected() {
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            assertThrows(IllegalArgumentException.class, () -> SvgPathParser.parse("M0 0 L10 0 L10 10 Z 5"));
+            assertThrows(IllegalArgumentException.class, () -> SvgPathParser.parse("m0 0 l10 0 l0 10 z1 2"));
+        });
+    }
+
+    @Test
+    void closepathEndsTheSubpath() {
+        PathGeometry path = assertTimeoutPreemptively(TIMEOUT, () -> SvgPathParser.parse("M0 0 L10 0 L10 10 Z M20 20 l5 0 z"));
+
+        byte[] expected = {PathGeometry.MOVE_TO, PathGeometry.LINE_TO, PathGeometry.LINE_TO, PathGeometry.CLOSE,
+                PathGeometry.MOVE_TO, PathGeometry.LINE_TO, PathGeometry.CLOSE};
+        assertEquals(expected.length, path.getCommandCount());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], path.getCommand(i), "command " + i);
+        }
+        assertEquals(25, path.getMaxX());
+    }
+}